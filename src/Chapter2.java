@@ -171,7 +171,8 @@ public class Chapter2 { // Creating and Destroying Objects
 
     // A simple pattern that satisfies this requirement is to pass the resource into the constructor when creating
     // a new instance. This is one form of dependency injection:
-    new SpellCheckerInjection(new Lexicon("AnyLanguage")).isValid("isded");
+    new SpellCheckerInjection(LexiconRegistry.SHARED.get("AnyLanguage")).isValid("isded");
+    // (LexiconRegistry loads each language once and shares it among all the spell checkers that inject it)
 
     // In summary, don't use a singleton or static utility class to implement a class that depends on one or more
     // underlying resources whose behavior affects that of the class, and do not have the class create these resources
@@ -235,6 +236,7 @@ public class Chapter2 { // Creating and Destroying Objects
     // The variable sum is declared as a Long instead of a long, which means that the programs constructs about 2^31
     // unnecessary Long instances. Changing the declaration of sum from Long to long reduced the runtime from 6.3s to
     // 0.59s. The lesson is clear: prefer primitives to boxed primitives, and watch out for unintentional autoboxing.
+    // (See LongReductions, and SumBenchmark for timings of this exact loop)
 
     // You should not conclude that object creation is expensive and should be avoided. On the contrary, the creation
     // and reclamation of small objects whose constructors do little explicit work is cheap, especially on modern JVM
@@ -1,3 +1,5 @@
+import content.NutritionFacts;
+
 /**
  * Although Object is a concrete class, it is designed primarily for extension. All of its nonfinal methods (equals,
  * hashCode, toString clone, and finalize) have explicit general contracts because they are designed to be overridden.
@@ -46,6 +48,23 @@ public class Chapter3 { // Methods Common to All Objects
     // of this object. If all these tests succeed, return true; otherwise, return false.
 
     // When you are finished writing your equals method, adk yourself: Is it symmetric? Is it transitive? Is it
-    // consistent?
+    // consistent? (See NutritionFacts class)
+  }
+
+  void item11() { // Always override hashCode when you override equals
+    // You must override hashCode in every class that overrides equals. If you fail to do so, your class will violate
+    // the general contract for hashCode, which will prevent it from functioning properly in collections such as
+    // HashMap and HashSet. Equal objects must have equal hash codes.
+
+    // If a class is immutable and the cost of computing the hash code is significant, you might consider caching the
+    // hash code in the object rather than recalculating it each time it is requested. NutritionFacts initializes it
+    // lazily, the first time hashCode is invoked.
+
+    // Value semantics also make it possible to share one canonical instance among equal values, much like
+    // String.intern. Millions of mostly duplicate records can be collapsed this way:
+    NutritionFacts cocaCola = new NutritionFacts.Builder(240, 8).calories(100).build().intern();
+    NutritionFacts sameCocaCola = new NutritionFacts.Builder(240, 8).calories(100).build().intern();
+    // cocaCola == sameCocaCola, and the duplicate built for sameCocaCola is free to be garbage collected.
+    // NutritionFactsInterner.shared() reports how many duplicates were avoided and the heap saved net of the table.
   }
 }
@@ -0,0 +1,313 @@
+package content;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Prefix completion over a Lexicon, ranked by word frequency (ties broken alphabetically).
+ *
+ * The index is a radix trie stored as parallel arrays rather than one object per node. Chains of nodes with a single
+ * child and no word of their own are collapsed into one edge, so there is a node only where a word ends or the words
+ * below branch. An edge is labelled by its first character, kept per node for the child search, and the rest of its
+ * characters are a range of one shared char array. Nodes are numbered breadth first, so the children of a node are
+ * consecutive and sorted by label, and the words below a node are a consecutive range of lexicon indices.
+ *
+ * Every node with more than k words below it keeps its top k completions precomputed; smaller nodes read their few
+ * frequencies from the lexicon and rank them on demand. A lookup is therefore one binary search per branching point on
+ * the way plus a comparison per character along the edges, and at most k reads.
+ *
+ * A Cursor follows the user's typing one character at a time, so each keystroke costs a single child lookup at most.
+ */
+public final class CompletionIndex {
+  public static final int DEFAULT_K = 8;
+
+  private final Lexicon lexicon;
+  private final int k;
+
+  private final char[] labels;    // First character of the edge leading into each node; unused for the root, node 0
+  private final int[] edgeStart;  // The rest of node n's edge is edges[edgeStart[n]] until edges[edgeStart[n + 1]]
+  private final char[] edges;
+  private final int[] childStart; // Children of node n are the nodes childStart[n] until childStart[n + 1]
+  private final int[] wordLo;     // Words below node n are the lexicon indices wordLo[n] until wordHi[n]
+  private final int[] wordHi;
+  private final int[] topStart;   // Precomputed completions of node n are top[topStart[n]] until top[topStart[n + 1]]
+  private final int[] top;
+
+  public CompletionIndex(Lexicon lexicon) {
+    this(lexicon, DEFAULT_K);
+  }
+
+  public CompletionIndex(Lexicon lexicon, int k) {
+    if (k < 1) { throw new IllegalArgumentException("k must be positive: " + k); }
+    this.lexicon = Objects.requireNonNull(lexicon);
+    this.k = k;
+
+    // Decoded once for construction only; afterwards the lexicon is the only copy
+    String[] words = new String[lexicon.size()];
+    int[] frequencies = new int[words.length];
+    lexicon.forEach(new ObjIntConsumer<>() {
+      int i = 0;
+
+      @Override
+      public void accept(String word, int frequency) {
+        words[i] = word;
+        frequencies[i++] = frequency;
+      }
+    });
+    // Every node but the root ends a word or branches, and there are fewer branching nodes than words
+    long maxNodes = 2L * words.length + 1;
+    if (maxNodes > Integer.MAX_VALUE - 1) {
+      throw new IllegalArgumentException("Lexicon too large to index: " + words.length + " words");
+    }
+
+    // Breadth-first construction; every node is appended after all the nodes of the previous level
+    char[] labels = new char[(int) maxNodes];
+    int[] edgeStart = new int[(int) maxNodes + 1];
+    StringBuilder edges = new StringBuilder();
+    int[] childStart = new int[(int) maxNodes + 1];
+    int[] wordLo = new int[(int) maxNodes];
+    int[] wordHi = new int[(int) maxNodes];
+    int[] depth = new int[(int) maxNodes];
+    int count = 1;
+    wordHi[0] = words.length;
+    for (int n = 0; n < count; n++) {
+      childStart[n] = count;
+      int d = depth[n];
+      int i = wordLo[n];
+      if (i < wordHi[n] && words[i].length() == d) {
+        i++; // The node's own word sorts first among the words that share its prefix
+      }
+      while (i < wordHi[n]) {
+        char c = words[i].charAt(d);
+        int j = i + 1;
+        while (j < wordHi[n] && words[j].charAt(d) == c) {
+          j++;
+        }
+        // The edge runs as far as all these words agree; being sorted, the first and last agree the least
+        int end = commonPrefixLength(words[i], words[j - 1]);
+        if (edges.length() > Integer.MAX_VALUE - (end - d)) {
+          throw new IllegalArgumentException("Lexicon too large to index: edges exceed " + Integer.MAX_VALUE);
+        }
+        labels[count] = c;
+        edgeStart[count] = edges.length();
+        edges.append(words[i], d + 1, end);
+        wordLo[count] = i;
+        wordHi[count] = j;
+        depth[count] = end;
+        count++;
+        i = j;
+      }
+    }
+    childStart[count] = count;
+    edgeStart[count] = edges.length();
+
+    this.labels = Arrays.copyOf(labels, count);
+    this.edgeStart = Arrays.copyOf(edgeStart, count + 1);
+    this.edges = edges.toString().toCharArray();
+    this.childStart = Arrays.copyOf(childStart, count + 1);
+    this.wordLo = Arrays.copyOf(wordLo, count);
+    this.wordHi = Arrays.copyOf(wordHi, count);
+
+    // Children have higher numbers than their parent, so a reverse sweep sees every child's top k before the parent
+    IntUnaryOperator frequency = word -> frequencies[word];
+    int[][] tops = new int[count][];
+    int[] candidates = new int[k];
+    int total = 0;
+    for (int n = count - 1; n >= 0; n--) {
+      if (wordHi[n] - wordLo[n] <= k) { continue; }
+      int size = 0;
+      if (words[wordLo[n]].length() == depth[n]) {
+        size = offer(candidates, size, wordLo[n], frequency);
+      }
+      for (int child = childStart[n]; child < childStart[n + 1]; child++) {
+        if (tops[child] != null) {
+          for (int word : tops[child]) {
+            size = offer(candidates, size, word, frequency);
+          }
+        } else {
+          for (int word = wordLo[child]; word < wordHi[child]; word++) {
+            size = offer(candidates, size, word, frequency);
+          }
+        }
+      }
+      tops[n] = Arrays.copyOf(candidates, size);
+      total += size;
+    }
+
+    topStart = new int[count + 1];
+    top = new int[total];
+    for (int n = 0, next = 0; n < count; n++) {
+      topStart[n] = next;
+      if (tops[n] != null) {
+        System.arraycopy(tops[n], 0, top, next, tops[n].length);
+        next += tops[n].length;
+      }
+    }
+    topStart[count] = total;
+  }
+
+  private static int commonPrefixLength(String a, String b) {
+    int limit = Math.min(a.length(), b.length());
+    int i = 0;
+    while (i < limit && a.charAt(i) == b.charAt(i)) {
+      i++;
+    }
+    return i;
+  }
+
+  public Lexicon lexicon() { return lexicon; }
+
+  public int nodeCount() { return labels.length; }
+
+  // Approximate heap footprint of the index, in bytes, not counting the lexicon itself
+  public long memoryBytes() {
+    return 48 + align(16 + 2L * labels.length) + align(16 + 4L * edgeStart.length) + align(16 + 2L * edges.length)
+        + align(16 + 4L * childStart.length) + align(16 + 4L * wordLo.length) + align(16 + 4L * wordHi.length)
+        + align(16 + 4L * topStart.length) + align(16 + 4L * top.length);
+  }
+
+  private static long align(long bytes) {
+    return (bytes + 7) & ~7L;
+  }
+
+  // Returns up to k words starting with prefix, most frequent first
+  public List<String> complete(String prefix) {
+    int node = 0;
+    for (int i = 0; i < prefix.length(); ) {
+      node = child(node, prefix.charAt(i++));
+      if (node < 0) { return Collections.emptyList(); }
+      // A prefix that ends inside the edge still selects exactly the words below its node
+      for (int e = edgeStart[node]; e < edgeStart[node + 1] && i < prefix.length(); e++) {
+        if (edges[e] != prefix.charAt(i++)) { return Collections.emptyList(); }
+      }
+    }
+    return completions(node);
+  }
+
+  public Cursor cursor() {
+    return new Cursor();
+  }
+
+  /**
+   * Tracks a prefix as it is typed. Each call to type or backspace does a constant amount of work apart from one
+   * binary search among the children of the current node, when the prefix reaches the end of its edge.
+   *
+   * Cursors are cheap, and not thread-safe; use one per editor.
+   */
+  public final class Cursor {
+    private final StringBuilder prefix = new StringBuilder();
+    private int[] path = new int[16];  // For d <= matched, the first d characters lead into node path[d]...
+    private int[] along = new int[16]; // ...and take along[d] characters of its edge beyond the label
+    private int matched = 0; // Length of the longest leading part of prefix that is in the index
+
+    private Cursor() {}
+
+    public void type(char c) {
+      prefix.append(c);
+      if (matched == prefix.length() - 1) {
+        int node = path[matched];
+        int edge = edgeStart[node] + along[matched];
+        int next;
+        int nextAlong;
+        if (edge < edgeStart[node + 1]) {
+          next = edges[edge] == c ? node : -1;
+          nextAlong = along[matched] + 1;
+        } else {
+          next = child(node, c);
+          nextAlong = 0;
+        }
+        if (next >= 0) {
+          if (matched + 1 == path.length) {
+            path = Arrays.copyOf(path, 2 * path.length);
+            along = Arrays.copyOf(along, path.length);
+          }
+          matched++;
+          path[matched] = next;
+          along[matched] = nextAlong;
+        }
+      }
+    }
+
+    public void backspace() {
+      if (prefix.length() == 0) { return; }
+      prefix.setLength(prefix.length() - 1);
+      matched = Math.min(matched, prefix.length());
+    }
+
+    public void reset() {
+      prefix.setLength(0);
+      matched = 0;
+    }
+
+    public String prefix() { return prefix.toString(); }
+
+    public List<String> completions() {
+      return matched == prefix.length() ? CompletionIndex.this.completions(path[matched]) : Collections.emptyList();
+    }
+  }
+
+  private List<String> completions(int node) {
+    int[] ranked;
+    if (topStart[node] < topStart[node + 1]) {
+      ranked = Arrays.copyOfRange(top, topStart[node], topStart[node + 1]);
+    } else {
+      int lo = wordLo[node];
+      int[] frequencies = new int[wordHi[node] - lo]; // At most k, so reading them from the lexicon is cheap
+      for (int i = 0; i < frequencies.length; i++) {
+        frequencies[i] = lexicon.frequency(lo + i);
+      }
+      ranked = new int[frequencies.length];
+      int size = 0;
+      for (int word = lo; word < wordHi[node]; word++) {
+        size = offer(ranked, size, word, w -> frequencies[w - lo]);
+      }
+    }
+    List<String> result = new ArrayList<>(ranked.length);
+    for (int word : ranked) {
+      result.add(lexicon.word(word));
+    }
+    return result;
+  }
+
+  // Returns the child of node labelled c, or -1 if there is none
+  private int child(int node, char c) {
+    int lo = childStart[node];
+    int hi = childStart[node + 1] - 1;
+    while (lo <= hi) {
+      int mid = (lo + hi) >>> 1;
+      if (labels[mid] < c) {
+        lo = mid + 1;
+      } else if (labels[mid] > c) {
+        hi = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -1;
+  }
+
+  // Inserts word into best, which holds size words in rank order and at most best.length; returns the new size
+  private static int offer(int[] best, int size, int word, IntUnaryOperator frequency) {
+    int i = size < best.length ? size : best.length - 1;
+    if (i == best.length - 1 && size == best.length && !ranksBefore(word, best[i], frequency)) {
+      return size;
+    }
+    while (i > 0 && ranksBefore(word, best[i - 1], frequency)) {
+      best[i] = best[i - 1];
+      i--;
+    }
+    best[i] = word;
+    return Math.min(size + 1, best.length);
+  }
+
+  private static boolean ranksBefore(int a, int b, IntUnaryOperator frequency) {
+    int fa = frequency.applyAsInt(a);
+    int fb = frequency.applyAsInt(b);
+    return fa > fb || (fa == fb && a < b);
+  }
+}
@@ -0,0 +1,454 @@
+package content;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EmptyStackException;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Stack of byte arrays that survives process crashes. It works like Stack, and additionally appends every push and
+ * pop to a journal file in its directory.
+ *
+ * Journal writes are group committed: one fsync covers every record appended since the previous one. The durability
+ * window sets when that fsync happens. With a zero window, each push or pop returns only once its record is on disk,
+ * and concurrent callers share fsyncs. With a positive window, a background thread syncs at that interval, so calls
+ * return at once and a crash loses at most the last window of operations. A popped element whose pop record was lost
+ * is back on the stack after recovery, so consumers should tolerate seeing an element twice.
+ *
+ * When the journal grows past the compaction threshold, the stack contents are written to a snapshot file and the
+ * journal is truncated. Recovery loads the snapshot and replays only the journal records that follow it. A torn record
+ * at the end of the journal, left by a crash in mid-write, is discarded.
+ *
+ * Only one DurableStack may have a directory open at a time; opening a directory that another stack, in this process or
+ * any other, still has open fails with an IOException. Close it when done, preferably with try-with-resources.
+ */
+public class DurableStack implements AutoCloseable {
+  static final String SNAPSHOT = "stack.snapshot"; // Package-private for DurableStackBenchmark
+  private static final String JOURNAL = "stack.journal";
+  private static final int SNAPSHOT_MAGIC = 0x44535331;
+  private static final byte PUSH = 1;
+  private static final byte POP = 2;
+  private static final int RECORD_HEADER = Long.BYTES + 1 + Integer.BYTES; // Sequence number, type, payload length
+  private static final int DEFAULT_INITIAL_CAPACITY = 16;
+
+  public static class Builder {
+    // Required parameters
+    private final Path directory;
+
+    // Optional parameters - initialized to default values
+    private Duration durabilityWindow = Duration.ZERO;
+    private long compactionThreshold = 64L << 20;
+
+    public Builder(Path directory) {
+      this.directory = Objects.requireNonNull(directory);
+    }
+
+    public Builder durabilityWindow(Duration val) {
+      if (val.isNegative()) { throw new IllegalArgumentException("Negative durability window: " + val); }
+      durabilityWindow = val;
+      return this;
+    }
+
+    // Journal size in bytes above which the stack is snapshotted and the journal truncated
+    public Builder compactionThreshold(long val) {
+      if (val < 0) { throw new IllegalArgumentException("Negative compaction threshold: " + val); }
+      compactionThreshold = val;
+      return this;
+    }
+
+    public DurableStack open() throws IOException {
+      return new DurableStack(this);
+    }
+  }
+
+  private final Path directory;
+  private final long windowNanos;
+  private final long compactionThreshold;
+  private final FileChannel journal;
+  private final ScheduledExecutorService flusher; // Null with a zero window
+
+  // Stack contents and the records not yet written to the journal, guarded by this
+  private byte[][] elements = new byte[DEFAULT_INITIAL_CAPACITY][];
+  private int size = 0;
+  private long lastSeq;
+  private ByteBuffer pending = ByteBuffer.allocate(1 << 16);
+  private ByteBuffer spare = ByteBuffer.allocate(1 << 16);
+  private final CRC32 crc = new CRC32();
+  private boolean closed = false;
+
+  // Group commit state; durableSeq and syncing are guarded by syncMonitor
+  private final Object syncMonitor = new Object();
+  private long durableSeq;
+  private boolean syncing = false;
+  private volatile IOException failure;
+  // Not guarded by any lock but confined: after the constructor, only the thread that set syncing touches the journal
+  // or journalSize, in writeAndForce and the compact it calls. Setting and clearing syncing under syncMonitor hands
+  // both over safely from one syncing thread to the next.
+  private long journalSize;
+
+  private DurableStack(Builder builder) throws IOException {
+    directory = builder.directory;
+    windowNanos = builder.durabilityWindow.toNanos();
+    compactionThreshold = builder.compactionThreshold;
+
+    Files.createDirectories(directory);
+    journal = FileChannel.open(directory.resolve(JOURNAL),
+        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      // Held until the journal is closed; the journal is only ever truncated in place, so it guards the directory
+      if (tryLock() == null) {
+        throw new IOException("DurableStack directory already open elsewhere: " + directory);
+      }
+      journalSize = replay(readSnapshot());
+      journal.truncate(journalSize);
+      journal.position(journalSize);
+    } catch (IOException | RuntimeException e) {
+      journal.close();
+      throw e;
+    }
+    durableSeq = lastSeq;
+
+    if (windowNanos > 0) {
+      flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "durable-stack-flusher");
+        thread.setDaemon(true);
+        return thread;
+      });
+      flusher.scheduleWithFixedDelay(this::backgroundSync, windowNanos, windowNanos, TimeUnit.NANOSECONDS);
+    } else {
+      flusher = null;
+    }
+  }
+
+  public void push(byte[] e) throws IOException {
+    e = e.clone(); // Defensive copy, the caller may reuse its array
+    long seq;
+    synchronized (this) {
+      checkUsable();
+      seq = append(PUSH, e);
+      ensureCapacity();
+      elements[size++] = e;
+    }
+    if (windowNanos == 0) {
+      awaitDurable(seq);
+    }
+  }
+
+  public byte[] pop() throws IOException {
+    byte[] result;
+    long seq;
+    synchronized (this) {
+      checkUsable();
+      if (size == 0) { throw new EmptyStackException(); }
+      result = elements[--size];
+      elements[size] = null; // Eliminate obsolete reference
+      seq = append(POP, null);
+    }
+    if (windowNanos == 0) {
+      awaitDurable(seq);
+    }
+    return result;
+  }
+
+  public synchronized int size() {
+    return size;
+  }
+
+  // Returns once every operation that has already returned is on disk
+  public void sync() throws IOException {
+    long seq;
+    synchronized (this) {
+      seq = lastSeq;
+    }
+    awaitDurable(seq);
+  }
+
+  @Override
+  public void close() throws IOException {
+    synchronized (this) {
+      if (closed) { return; }
+      closed = true;
+    }
+    try {
+      if (flusher != null) {
+        flusher.shutdown();
+        flusher.awaitTermination(1, TimeUnit.MINUTES);
+      }
+      sync();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      journal.close();
+    }
+  }
+
+  // Exclusive lock on the whole journal, or null if another stack holds it. A lock held by this JVM is reported by an
+  // exception rather than null, so both cases are mapped to null.
+  private FileLock tryLock() throws IOException {
+    try {
+      return journal.tryLock();
+    } catch (OverlappingFileLockException e) {
+      return null;
+    }
+  }
+
+  private void checkUsable() throws IOException {
+    if (closed) { throw new IllegalStateException("DurableStack is closed"); }
+    if (failure != null) { throw new IOException("Journal write failed earlier", failure); }
+  }
+
+  /**
+   * Ensure space for at least one more element, roughly doubling the capacity each time the array needs to grow.
+   */
+  private void ensureCapacity() {
+    if (elements.length == size) {
+      elements = Arrays.copyOf(elements, 2*size + 1);
+    }
+  }
+
+  // Appends a record to the pending buffer and returns its sequence number; caller holds the lock on this
+  private long append(byte type, byte[] payload) {
+    int length = payload == null ? 0 : payload.length;
+    int recordLength = RECORD_HEADER + length + Integer.BYTES;
+    if (pending.remaining() < recordLength) {
+      ByteBuffer bigger = ByteBuffer.allocate(Math.max(2 * pending.capacity(), pending.position() + recordLength));
+      pending.flip();
+      pending = bigger.put(pending);
+    }
+    int start = pending.position();
+    pending.putLong(++lastSeq).put(type).putInt(length);
+    if (payload != null) {
+      pending.put(payload);
+    }
+    crc.reset();
+    crc.update(pending.array(), start, pending.position() - start);
+    pending.putInt((int) crc.getValue());
+    return lastSeq;
+  }
+
+  // Group commit: the first waiter to arrive syncs everything appended so far, later ones wait for it
+  private void awaitDurable(long seq) throws IOException {
+    synchronized (syncMonitor) {
+      boolean interrupted = false;
+      try {
+        while (true) {
+          if (failure != null) { throw new IOException("Journal write failed", failure); }
+          if (durableSeq >= seq) { return; }
+          if (!syncing) {
+            syncing = true;
+            break;
+          }
+          try {
+            syncMonitor.wait();
+          } catch (InterruptedException e) {
+            interrupted = true; // The record is already appended; waiting out the sync keeps the contract simple
+          }
+        }
+      } finally {
+        if (interrupted) { Thread.currentThread().interrupt(); }
+      }
+    }
+
+    long upTo = 0;
+    IOException error = null;
+    try {
+      upTo = writeAndForce();
+    } catch (IOException e) {
+      error = e;
+    }
+    synchronized (syncMonitor) {
+      syncing = false;
+      if (error != null) {
+        failure = error;
+      } else {
+        durableSeq = Math.max(durableSeq, upTo);
+      }
+      syncMonitor.notifyAll();
+    }
+    if (error != null) { throw error; }
+  }
+
+  private void backgroundSync() {
+    try {
+      sync();
+    } catch (IOException e) {
+      // Recorded in failure and reported to the next caller
+    }
+  }
+
+  // Writes the pending records and forces them to disk; returns the last sequence number now durable
+  private long writeAndForce() throws IOException {
+    ByteBuffer batch;
+    long upTo;
+    synchronized (this) {
+      batch = pending;
+      pending = spare;
+      upTo = lastSeq;
+    }
+    batch.flip();
+    while (batch.hasRemaining()) {
+      journalSize += journal.write(batch);
+    }
+    journal.force(false);
+    batch.clear();
+    synchronized (this) {
+      spare = batch;
+    }
+    if (journalSize > compactionThreshold) {
+      upTo = compact();
+    }
+    return upTo;
+  }
+
+  /**
+   * Snapshots the current contents and truncates the journal. Operations block meanwhile, which costs time in
+   * proportion to the stack's size, not the journal's.
+   */
+  private long compact() throws IOException {
+    synchronized (this) {
+      // Records appended since the last write are covered by the snapshot, so they can be dropped
+      pending.clear();
+      writeSnapshot();
+      journal.truncate(0);
+      journal.force(true);
+      journalSize = 0;
+      return lastSeq;
+    }
+  }
+
+  // Snapshot layout: magic, last sequence number, element count, then each element's length and bytes, then a CRC32
+  private void writeSnapshot() throws IOException {
+    Path tmp = directory.resolve(SNAPSHOT + ".tmp");
+    try (FileOutputStream file = new FileOutputStream(tmp.toFile())) {
+      CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file), new CRC32());
+      DataOutputStream out = new DataOutputStream(checked);
+      out.writeInt(SNAPSHOT_MAGIC);
+      out.writeLong(lastSeq);
+      out.writeInt(size);
+      for (int i = 0; i < size; i++) {
+        out.writeInt(elements[i].length);
+        out.write(elements[i]);
+      }
+      out.writeInt((int) checked.getChecksum().getValue());
+      out.flush();
+      file.getFD().sync();
+    }
+    Files.move(tmp, directory.resolve(SNAPSHOT), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    syncDirectory();
+  }
+
+  // Loads the snapshot, if any, and returns the sequence number of the last operation it includes
+  private long readSnapshot() throws IOException {
+    InputStream file;
+    try {
+      file = Files.newInputStream(directory.resolve(SNAPSHOT));
+    } catch (NoSuchFileException e) {
+      return 0;
+    }
+    try (file) {
+      CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(file), new CRC32());
+      DataInputStream in = new DataInputStream(checked);
+      if (in.readInt() != SNAPSHOT_MAGIC) {
+        throw new IOException("Not a DurableStack snapshot: " + directory.resolve(SNAPSHOT));
+      }
+      long seq = in.readLong();
+      int count = in.readInt();
+      byte[][] restored = new byte[Math.max(count, DEFAULT_INITIAL_CAPACITY)][];
+      for (int i = 0; i < count; i++) {
+        restored[i] = new byte[in.readInt()];
+        in.readFully(restored[i]);
+      }
+      int expected = (int) checked.getChecksum().getValue();
+      if (in.readInt() != expected) {
+        throw new IOException("Corrupt DurableStack snapshot: " + directory.resolve(SNAPSHOT));
+      }
+      elements = restored;
+      size = count;
+      lastSeq = seq;
+      return seq;
+    }
+  }
+
+  // Applies the journal records that follow the snapshot and returns the length of the journal's valid prefix
+  private long replay(long snapshotSeq) throws IOException {
+    long fileSize = journal.size();
+    DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(journal.position(0))));
+    byte[] header = new byte[RECORD_HEADER];
+    ByteBuffer headerView = ByteBuffer.wrap(header);
+    CRC32 check = new CRC32();
+    long position = 0;
+    while (true) {
+      try {
+        in.readFully(header);
+      } catch (EOFException e) {
+        return position;
+      }
+      long seq = headerView.getLong(0);
+      byte type = header[Long.BYTES];
+      int length = headerView.getInt(Long.BYTES + 1);
+      long recordLength = RECORD_HEADER + (long) length + Integer.BYTES;
+      if (length < 0 || position + recordLength > fileSize || (type == POP && length != 0)
+          || (type != PUSH && type != POP)) {
+        return position; // Torn or garbage tail
+      }
+      byte[] payload = new byte[length];
+      in.readFully(payload);
+      int storedCrc = in.readInt();
+      check.reset();
+      check.update(header);
+      check.update(payload);
+      if (storedCrc != (int) check.getValue()) {
+        return position;
+      }
+      if (seq <= snapshotSeq && lastSeq == snapshotSeq) {
+        // Already in the snapshot: the crash came between writing it and truncating the journal
+      } else if (seq != lastSeq + 1) {
+        return position; // Stale bytes from before a truncation
+      } else {
+        lastSeq = seq;
+        if (type == PUSH) {
+          ensureCapacity();
+          elements[size++] = payload;
+        } else if (size == 0) {
+          throw new IOException("Journal pops an empty stack at sequence number " + seq);
+        } else {
+          elements[--size] = null;
+        }
+      }
+      position += recordLength;
+    }
+  }
+
+  // Makes a rename durable. Some platforms cannot open a directory for this; there the rename is left to the OS
+  private void syncDirectory() {
+    try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+      dir.force(true);
+    } catch (IOException e) {
+      // Best effort only
+    }
+  }
+}
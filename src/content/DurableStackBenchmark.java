@@ -0,0 +1,114 @@
+package content;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Measures DurableStack throughput, in journal records per second, for several durability windows and numbers of
+ * producer threads, then reopens each stack and reports how long recovery takes.
+ *
+ * Each thread pushes records and pops every third one, so both record types are exercised and the stack keeps growing.
+ * The main rows never compact, so recovery replays the whole journal; the last rows use a 64 KiB compaction threshold,
+ * so compaction runs during the load and recovery starts from a snapshot.
+ *
+ * Run with: java content.DurableStackBenchmark [recordsPerThread] [payloadBytes] [directory]
+ */
+public class DurableStackBenchmark {
+  private static final long NEVER_COMPACT = Long.MAX_VALUE;
+  private static final long COMPACTING = 64L << 10;
+
+  public static void main(String[] args) throws Exception {
+    int records = args.length > 0 ? Integer.parseInt(args[0]) : 3_000;
+    int payloadBytes = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+    Path root = args.length > 2
+        ? Files.createDirectories(Path.of(args[2]))
+        : Files.createTempDirectory("durable-stack");
+
+    System.out.printf("%-10s %7s %12s %14s %12s %10s%n", "window", "threads", "records", "records/s", "recovery",
+        "compacted");
+    try {
+      for (Duration window : new Duration[] {Duration.ZERO, Duration.ofMillis(1), Duration.ofMillis(10),
+          Duration.ofMillis(100)}) {
+        for (int threads : new int[] {1, 8}) {
+          Path directory = root.resolve(window.toMillis() + "ms-" + threads + "t");
+          run(directory, window, threads, records, payloadBytes, NEVER_COMPACT);
+        }
+      }
+      // Same load with a journal small enough to be compacted several times, so recovery starts from a snapshot
+      for (int threads : new int[] {1, 8}) {
+        Path directory = root.resolve("compacting-" + threads + "t");
+        run(directory, Duration.ofMillis(1), threads, records, payloadBytes, COMPACTING);
+      }
+    } finally {
+      if (args.length <= 2) {
+        delete(root);
+      }
+    }
+  }
+
+  private static void run(Path directory, Duration window, int threads, int records, int payloadBytes,
+      long compactionThreshold) throws Exception {
+    long elapsed;
+    int expectedSize;
+    try (DurableStack stack = new DurableStack.Builder(directory).durabilityWindow(window)
+        .compactionThreshold(compactionThreshold).open()) {
+      CountDownLatch start = new CountDownLatch(1);
+      CountDownLatch done = new CountDownLatch(threads);
+      AtomicReference<Exception> failure = new AtomicReference<>();
+      for (int t = 0; t < threads; t++) {
+        new Thread(() -> {
+          byte[] payload = new byte[payloadBytes];
+          try {
+            start.await();
+            for (int i = 0; i < records; i++) {
+              if (i % 3 == 2) {
+                stack.pop();
+              } else {
+                stack.push(payload);
+              }
+            }
+          } catch (Exception e) {
+            failure.compareAndSet(null, e);
+          } finally {
+            done.countDown();
+          }
+        }).start();
+      }
+      long t0 = System.nanoTime();
+      start.countDown();
+      done.await();
+      stack.sync(); // Count the time until everything is on disk, whatever the window
+      elapsed = System.nanoTime() - t0;
+      if (failure.get() != null) {
+        throw failure.get();
+      }
+      expectedSize = stack.size();
+    }
+
+    long t0 = System.nanoTime();
+    try (DurableStack recovered = new DurableStack.Builder(directory).open()) {
+      long recovery = System.nanoTime() - t0;
+      if (recovered.size() != expectedSize) {
+        throw new AssertionError("Recovered " + recovered.size() + " elements, expected " + expectedSize);
+      }
+      long total = (long) threads * records;
+      boolean compacted = Files.exists(directory.resolve(DurableStack.SNAPSHOT));
+      System.out.printf("%-10s %7d %,12d %,14.0f %9.1f ms %10s%n", window.toMillis() + " ms", threads, total,
+          total / (elapsed / 1e9), recovery / 1e6, compacted ? "yes" : "no");
+    }
+  }
+
+  private static void delete(Path root) throws IOException {
+    try (Stream<Path> paths = Files.walk(root)) {
+      for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(path);
+      }
+    }
+  }
+}
@@ -0,0 +1,337 @@
+package content;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Immutable sorted list of words with their frequencies, front coded into a single byte array.
+ *
+ * Words are grouped into blocks of BLOCK_SIZE. The first word of a block is stored in full; each following word stores
+ * only how many leading bytes it shares with its predecessor and the remaining suffix. Every word is followed by its
+ * frequency. Lengths and frequencies are unsigned varints.
+ *
+ * Characters are encoded in one to three bytes so that comparing encoded words byte by byte gives the same order as
+ * String.compareTo. A lookup can therefore binary search the first words of the blocks directly on the bytes and then
+ * scan at most one block, without decoding or copying any word.
+ */
+final class FrontCodedWords {
+  private static final int BLOCK_SIZE = 16;
+
+  private final int size;
+  private final byte[] data;
+  private final int[] blockOffsets; // Start of each block in data
+  private final int[] blockKeys;    // First four bytes of each block's first word, so most probes never touch data
+  private final int maxLength;      // Longest encoded word, in bytes
+
+  // words must be sorted and free of duplicates
+  FrontCodedWords(String[] words, int[] frequencies) {
+    size = words.length;
+    blockOffsets = new int[(size + BLOCK_SIZE - 1) / BLOCK_SIZE];
+    blockKeys = new int[blockOffsets.length];
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] previous = new byte[0];
+    int maxLength = 0;
+    for (int i = 0; i < size; i++) {
+      byte[] current = encode(words[i]);
+      maxLength = Math.max(maxLength, current.length);
+      int shared = 0;
+      if (i % BLOCK_SIZE == 0) {
+        blockOffsets[i / BLOCK_SIZE] = out.size();
+        blockKeys[i / BLOCK_SIZE] = leadingBytes(current, 0, current.length);
+      } else {
+        int limit = Math.min(previous.length, current.length);
+        while (shared < limit && previous[shared] == current[shared]) {
+          shared++;
+        }
+        writeVarint(out, shared);
+      }
+      writeVarint(out, current.length - shared);
+      out.write(current, shared, current.length - shared);
+      writeVarint(out, frequencies[i]);
+      previous = current;
+    }
+    data = out.toByteArray();
+    this.maxLength = maxLength;
+  }
+
+  int size() { return size; }
+
+  // Returns the index of word, or -1 if it is absent
+  int indexOf(String word) {
+    if (size == 0) { return -1; }
+    byte[] key = encode(word);
+    return scan(block(key, leadingBytes(key, 0, key.length), 0, blockOffsets.length - 1), key);
+  }
+
+  // Returns the index of each word, or -1 for those that are absent, in the order given. The words are looked up in
+  // sorted order in a single forward pass: each search starts from the block where the previous word was found and
+  // gallops ahead, so no block is searched twice however the words are spread over the list.
+  int[] indexOf(List<String> words) {
+    int[] result = new int[words.size()];
+    if (size == 0) {
+      Arrays.fill(result, -1);
+      return result;
+    }
+    byte[][] keys = new byte[result.length][];
+    Integer[] order = new Integer[result.length];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = encode(words.get(i));
+      order[i] = i;
+    }
+    Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(keys[a], keys[b]));
+
+    int last = blockOffsets.length - 1;
+    int lo = 0;
+    for (int i : order) {
+      byte[] key = keys[i];
+      int keyBytes = leadingBytes(key, 0, key.length);
+      int step = 1;
+      int bound = lo + 1;
+      while (bound <= last && compareBlock(bound, key, keyBytes) <= 0) {
+        lo = bound;
+        step <<= 1;
+        bound = lo + step;
+      }
+      lo = block(key, keyBytes, lo, Math.min(bound - 1, last));
+      result[i] = scan(lo, key);
+    }
+    return result;
+  }
+
+  // Finds the last block in [lo, hi] whose first word is not greater than the key, or lo if there is none
+  private int block(byte[] key, int keyBytes, int lo, int hi) {
+    while (lo < hi) {
+      int mid = (lo + hi + 1) >>> 1;
+      if (compareBlock(mid, key, keyBytes) <= 0) {
+        lo = mid;
+      } else {
+        hi = mid - 1;
+      }
+    }
+    return lo;
+  }
+
+  // Compares the first word of a block with the key, looking at data only when the first four bytes are equal
+  private int compareBlock(int block, byte[] key, int keyBytes) {
+    int cmp = Integer.compareUnsigned(blockKeys[block], keyBytes);
+    if (cmp == 0) {
+      int pos = blockOffsets[block];
+      int length = varint(pos);
+      pos += varintSize(length);
+      cmp = compare(pos, length, key, 0);
+    }
+    return cmp;
+  }
+
+  // Scans a block for the key, tracking how many leading bytes the current word has in common with it. A word that
+  // shares fewer bytes with its predecessor than that is already past the key; one that shares more still precedes
+  // it. Only words that share exactly that many need their suffix compared.
+  private int scan(int block, byte[] key) {
+    int pos = blockOffsets[block];
+    int length = varint(pos);
+    pos += varintSize(length);
+    int matched = mismatch(pos, length, key, 0);
+    if (matched == length && length == key.length) { return block * BLOCK_SIZE; }
+    if (matched == key.length || matched < length && greater(pos + matched, key[matched])) {
+      return -1; // The first word of the first block is already past the key
+    }
+    pos += length;
+    pos += varintSize(varint(pos)); // Frequency
+    int end = Math.min(size, (block + 1) * BLOCK_SIZE);
+    for (int i = block * BLOCK_SIZE + 1; i < end; i++) {
+      int shared = varint(pos);
+      pos += varintSize(shared);
+      int suffix = varint(pos);
+      pos += varintSize(suffix);
+      if (shared < matched) { return -1; }
+      if (shared == matched) {
+        int k = mismatch(pos, suffix, key, matched);
+        if (k == suffix && matched + k == key.length) { return i; }
+        if (matched + k == key.length || k < suffix && greater(pos + k, key[matched + k])) {
+          return -1;
+        }
+        matched += k;
+      }
+      pos += suffix;
+      pos += varintSize(varint(pos)); // Frequency
+    }
+    return -1;
+  }
+
+  // Compares the length bytes of data at pos with key from offset on, both unsigned
+  private int compare(int pos, int length, byte[] key, int offset) {
+    int k = mismatch(pos, length, key, offset);
+    if (k < length && offset + k < key.length) {
+      return Integer.compare(data[pos + k] & 0xff, key[offset + k] & 0xff);
+    }
+    return Integer.compare(length, key.length - offset);
+  }
+
+  // Number of leading bytes that the length bytes of data at pos share with key from offset on
+  private int mismatch(int pos, int length, byte[] key, int offset) {
+    int limit = Math.min(length, key.length - offset);
+    int k = 0;
+    while (k < limit && data[pos + k] == key[offset + k]) {
+      k++;
+    }
+    return k;
+  }
+
+  private int varint(int pos) {
+    int value = 0;
+    for (int shift = 0; ; shift += 7) {
+      byte b = data[pos++];
+      value |= (b & 0x7f) << shift;
+      if (b >= 0) { return value; }
+    }
+  }
+
+  private static int varintSize(int value) {
+    int size = 1;
+    while ((value & ~0x7f) != 0) {
+      value >>>= 7;
+      size++;
+    }
+    return size;
+  }
+
+  // Packs up to the first four bytes big endian, padded with zeros; equal results still need a full comparison
+  private static int leadingBytes(byte[] bytes, int offset, int length) {
+    int packed = 0;
+    for (int i = 0; i < 4; i++) {
+      packed = packed << 8 | (i < length ? bytes[offset + i] & 0xff : 0);
+    }
+    return packed;
+  }
+
+  // Whether data[pos] is greater than b, both taken as unsigned
+  private boolean greater(int pos, byte b) {
+    return (data[pos] & 0xff) > (b & 0xff);
+  }
+
+  String word(int index) {
+    return seek(index).word();
+  }
+
+  int frequency(int index) {
+    return seek(index).frequency;
+  }
+
+  // Visits every word with its frequency, in sorted order
+  void forEach(ObjIntConsumer<String> action) {
+    Reader reader = new Reader();
+    for (int i = 0; i < size; i++) {
+      if (i % BLOCK_SIZE == 0) {
+        reader.seekBlock(i / BLOCK_SIZE);
+      }
+      reader.next();
+      action.accept(reader.word(), reader.frequency);
+    }
+  }
+
+  // Approximate heap footprint: the three arrays plus object headers
+  long memoryBytes() {
+    return 32 + align(16 + data.length) + 2 * align(16 + 4L * blockOffsets.length);
+  }
+
+  private Reader seek(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+    }
+    Reader reader = new Reader();
+    reader.seekBlock(index / BLOCK_SIZE);
+    for (int i = index % BLOCK_SIZE; i >= 0; i--) {
+      reader.next();
+    }
+    return reader;
+  }
+
+  // Decodes the entries of a block one after another
+  private final class Reader {
+    private final byte[] word = new byte[maxLength];
+    private int length;
+    private int frequency;
+    private int pos;
+    private boolean first;
+
+    void seekBlock(int block) {
+      pos = blockOffsets[block];
+      first = true;
+    }
+
+    void next() {
+      int shared = first ? 0 : readVarint();
+      int suffix = readVarint();
+      System.arraycopy(data, pos, word, shared, suffix);
+      pos += suffix;
+      length = shared + suffix;
+      frequency = readVarint();
+      first = false;
+    }
+
+    String word() {
+      return decode(word, length);
+    }
+
+    private int readVarint() {
+      int value = varint(pos);
+      pos += varintSize(value);
+      return value;
+    }
+  }
+
+  // Order-preserving character encoding: 0xxxxxxx, 10xxxxxx xxxxxxxx, or 110000xx xxxxxxxx 00xxxxxx
+  private static byte[] encode(String word) {
+    int length = 0;
+    for (int i = 0; i < word.length(); i++) {
+      char c = word.charAt(i);
+      length += c < 0x80 ? 1 : c < 0x4000 ? 2 : 3;
+    }
+    byte[] bytes = new byte[length];
+    int n = 0;
+    for (int i = 0; i < word.length(); i++) {
+      char c = word.charAt(i);
+      if (c < 0x80) {
+        bytes[n++] = (byte) c;
+      } else if (c < 0x4000) {
+        bytes[n++] = (byte) (0x80 | c >>> 8);
+        bytes[n++] = (byte) c;
+      } else {
+        bytes[n++] = (byte) (0xc0 | c >>> 14);
+        bytes[n++] = (byte) (c >>> 6);
+        bytes[n++] = (byte) (c & 0x3f);
+      }
+    }
+    return bytes;
+  }
+
+  private static String decode(byte[] bytes, int length) {
+    char[] chars = new char[length];
+    int n = 0;
+    for (int i = 0; i < length; ) {
+      int b = bytes[i++] & 0xff;
+      if (b < 0x80) {
+        chars[n++] = (char) b;
+      } else if (b < 0xc0) {
+        chars[n++] = (char) ((b & 0x3f) << 8 | bytes[i++] & 0xff);
+      } else {
+        chars[n++] = (char) ((b & 0x03) << 14 | (bytes[i++] & 0xff) << 6 | bytes[i++] & 0x3f);
+      }
+    }
+    return new String(chars, 0, n);
+  }
+
+  private static void writeVarint(ByteArrayOutputStream out, int value) {
+    while ((value & ~0x7f) != 0) {
+      out.write((value & 0x7f) | 0x80);
+      value >>>= 7;
+    }
+    out.write(value);
+  }
+
+  private static long align(long bytes) {
+    return (bytes + 7) & ~7L;
+  }
+}
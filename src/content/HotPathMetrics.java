@@ -0,0 +1,88 @@
+package content;
+
+import java.util.concurrent.atomic.LongAdder;
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Call counts and cumulative timings for the instrumented hot paths: SpellCheckerInjection.isValid and suggestions,
+ * RomanNumeralsImproved.isRomanNumeral and Stack growth.
+ *
+ * Collection is off unless the JVM is started with -Dcontent.metrics=true. The switch is a static final field, so when
+ * it is off the JIT compiler removes the instrumentation entirely. When it is on, every update is a LongAdder increment
+ * and the counters are also published to Java Flight Recorder as a periodic HotPathStatisticsEvent.
+ */
+public final class HotPathMetrics {
+  public static final boolean ENABLED = Boolean.getBoolean("content.metrics");
+
+  public static final Timer IS_VALID = new Timer();
+  public static final Timer SUGGESTIONS = new Timer();
+  public static final Timer ROMAN_NUMERAL = new Timer();
+  public static final Counter STACK_RESIZES = new Counter();
+
+  static {
+    if (ENABLED) {
+      FlightRecorder.addPeriodicEvent(HotPathStatisticsEvent.class, HotPathMetrics::emitStatistics);
+    }
+  }
+
+  private HotPathMetrics() {
+    throw new AssertionError(); // Noninstantiable
+  }
+
+  // Start time to pass to Timer.stop; reads the clock only when collection is on
+  public static long start() {
+    return ENABLED ? System.nanoTime() : 0L;
+  }
+
+  public static final class Timer {
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+
+    private Timer() {}
+
+    public void stop(long start) {
+      if (ENABLED) {
+        calls.increment();
+        nanos.add(System.nanoTime() - start);
+      }
+    }
+
+    // Records a batch that did the work of the given number of calls, so nanos / calls stays a per-call average
+    public void stop(long start, int batchedCalls) {
+      if (ENABLED) {
+        calls.add(batchedCalls);
+        nanos.add(System.nanoTime() - start);
+      }
+    }
+
+    public long calls() { return calls.sum(); }
+
+    public long nanos() { return nanos.sum(); }
+  }
+
+  public static final class Counter {
+    private final LongAdder count = new LongAdder();
+
+    private Counter() {}
+
+    public void increment() {
+      if (ENABLED) {
+        count.increment();
+      }
+    }
+
+    public long count() { return count.sum(); }
+  }
+
+  private static void emitStatistics() {
+    HotPathStatisticsEvent event = new HotPathStatisticsEvent();
+    event.isValidCalls = IS_VALID.calls();
+    event.isValidNanos = IS_VALID.nanos();
+    event.suggestionsCalls = SUGGESTIONS.calls();
+    event.suggestionsNanos = SUGGESTIONS.nanos();
+    event.romanNumeralCalls = ROMAN_NUMERAL.calls();
+    event.romanNumeralNanos = ROMAN_NUMERAL.nanos();
+    event.stackResizes = STACK_RESIZES.count();
+    event.commit();
+  }
+}
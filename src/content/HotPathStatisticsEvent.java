@@ -0,0 +1,42 @@
+package content;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// Periodic snapshot of the HotPathMetrics counters, cumulative since the JVM started
+@Name("content.HotPathStatistics")
+@Label("Hot Path Statistics")
+@Category({"Effective Java"})
+@Description("Cumulative call counts and time spent in instrumented hot paths")
+@Period("1 s")
+@StackTrace(false)
+class HotPathStatisticsEvent extends jdk.jfr.Event {
+  @Label("isValid Calls")
+  long isValidCalls;
+
+  @Label("isValid Time")
+  @Timespan
+  long isValidNanos;
+
+  @Label("suggestions Calls")
+  long suggestionsCalls;
+
+  @Label("suggestions Time")
+  @Timespan
+  long suggestionsNanos;
+
+  @Label("isRomanNumeral Calls")
+  long romanNumeralCalls;
+
+  @Label("isRomanNumeral Time")
+  @Timespan
+  long romanNumeralNanos;
+
+  @Label("Stack Resizes")
+  long stackResizes;
+}
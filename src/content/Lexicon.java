@@ -1,9 +1,105 @@
 package content;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.ObjIntConsumer;
+
+// Immutable dictionary of words for one language, each with how often it occurs. Words are kept in sorted order and
+// can also be addressed by their index in that order. They are stored front coded (see FrontCodedWords), which takes
+// a small fraction of the memory of a Set<String>.
 public class Lexicon {
-    private String language;
+    private final String language;
+    private final FrontCodedWords words;
+    private volatile CompletionIndex completionIndex; // Lazily initialized, see completionIndex()
+    private volatile Runnable onGrowth = () -> {};   // Run once the completion index is built, see onGrowth
 
     public Lexicon(String language) {
-        this.language = language;
+        this(language, Collections.emptyMap());
+    }
+
+    public Lexicon(String language, Map<String, Integer> wordFrequencies) {
+        LexiconLoadEvent event = new LexiconLoadEvent();
+        event.begin();
+        this.language = Objects.requireNonNull(language);
+        String[] sorted = wordFrequencies.keySet().toArray(new String[0]);
+        Arrays.sort(sorted);
+        int[] frequencies = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            frequencies[i] = wordFrequencies.get(sorted[i]);
+            if (frequencies[i] < 0) {
+                throw new IllegalArgumentException("Negative frequency for " + sorted[i]);
+            }
+        }
+        words = new FrontCodedWords(sorted, frequencies);
+        if (event.shouldCommit()) {
+            event.language = language;
+            event.words = words.size();
+            event.commit();
+        }
+    }
+
+    public String language() { return language; }
+
+    public int size() { return words.size(); }
+
+    public boolean contains(String word) {
+        return words.indexOf(word) >= 0;
+    }
+
+    // Whether each of the words is in the lexicon, in the order given. Cheaper than calling contains for each word, as
+    // the words are looked up in one forward pass over the lexicon
+    public boolean[] containsEach(List<String> words) {
+        int[] indexes = this.words.indexOf(words);
+        boolean[] result = new boolean[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            result[i] = indexes[i] >= 0;
+        }
+        return result;
+    }
+
+    // Returns how often the word occurs, or 0 if it isn't in the lexicon
+    public int frequency(String word) {
+        int i = words.indexOf(word);
+        return i >= 0 ? words.frequency(i) : 0;
+    }
+
+    // Returns the word at the given index in sorted order
+    public String word(int index) { return words.word(index); }
+
+    public int frequency(int index) { return words.frequency(index); }
+
+    // Visits every word with its frequency, in sorted order
+    public void forEach(ObjIntConsumer<String> action) {
+        words.forEach(action);
+    }
+
+    // Prefix completion over this lexicon, shared by all its users. Double-check idiom for lazy initialization of
+    // instance fields: only lexicons that someone completes against pay for the index.
+    public CompletionIndex completionIndex() {
+        CompletionIndex result = completionIndex;
+        if (result == null) {
+            synchronized (this) {
+                result = completionIndex;
+                if (result == null) {
+                    completionIndex = result = new CompletionIndex(this);
+                    onGrowth.run();
+                }
+            }
+        }
+        return result;
+    }
+
+    // Lets the registry holding this lexicon account for the completion index when it is built
+    void onGrowth(Runnable listener) {
+        onGrowth = Objects.requireNonNull(listener);
+    }
+
+    // Approximate heap footprint of this lexicon, in bytes, including its completion index once built
+    public long memoryBytes() {
+        CompletionIndex index = completionIndex;
+        return 32 + words.memoryBytes() + (index == null ? 0 : index.memoryBytes());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,133 @@
+package content;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Compares the front-coded Lexicon with a HashSet<String> baseline holding the same words: heap footprint and
+ * membership lookup latency. Lookups are also timed against binary search over a sorted String[].
+ *
+ * Footprints are computed from object layouts on a 64-bit JVM with compressed oops and compact strings (the
+ * defaults), since used-heap deltas are too noisy to compare structures of this size.
+ *
+ * Run with: java content.LexiconBenchmark [word-list-file]
+ * Without a file, 200,000 pseudo-words are generated from common English syllables.
+ */
+public class LexiconBenchmark {
+  private static final String[] SYLLABLES = {"a", "al", "an", "ar", "as", "at", "be", "ca", "ce", "co", "de", "di",
+      "ed", "en", "er", "es", "ge", "hi", "ic", "in", "is", "it", "la", "le", "li", "ly", "ma", "me", "mi", "ne", "ng",
+      "on", "or", "ou", "pe", "pro", "ra", "re", "ri", "ro", "se", "st", "te", "ter", "ti", "tion", "to", "un", "ur",
+      "ve"};
+
+  private static final int LOOKUPS = 2_000_000;
+
+  private static int hits; // Hits of the last timed run, so the lookups can't be optimized away
+
+  public static void main(String[] args) throws IOException {
+    List<String> words = args.length > 0
+        ? Files.readAllLines(Paths.get(args[0]), StandardCharsets.UTF_8)
+        : generate(200_000, new Random(42));
+
+    Map<String, Integer> frequencies = new HashMap<>();
+    for (String word : words) {
+      frequencies.merge(word, 1, Integer::sum);
+    }
+    String[] distinct = frequencies.keySet().toArray(new String[0]);
+
+    Set<String> hashSet = new HashSet<>(Arrays.asList(distinct));
+    String[] sorted = distinct.clone(); // Binary search baseline, with the same lookup complexity as the Lexicon
+    Arrays.sort(sorted);
+    Lexicon lexicon = new Lexicon("benchmark", frequencies);
+    long hashSetBytes = footprint(hashSet);
+    long lexiconBytes = lexicon.memoryBytes();
+
+    System.out.printf("%,d distinct words%n", distinct.length);
+    System.out.printf("HashSet<String>  %,12d bytes  %6.1f bytes/word%n",
+        hashSetBytes, (double) hashSetBytes / distinct.length);
+    System.out.printf("Lexicon          %,12d bytes  %6.1f bytes/word  (including frequencies)%n",
+        lexiconBytes, (double) lexiconBytes / distinct.length);
+    System.out.printf("reduction        %.1fx%n", (double) hashSetBytes / lexiconBytes);
+
+    // Half of the probes are words from the list, the other half are those words with a letter appended
+    Random random = new Random(7);
+    String[] probes = new String[1 << 16];
+    for (int i = 0; i < probes.length; i++) {
+      String word = distinct[random.nextInt(distinct.length)];
+      probes[i] = i % 2 == 0 ? word : word + "q";
+    }
+    for (int round = 0; round < 3; round++) { // The last round is reported; the earlier ones warm up the JIT
+      long hashSetNanos = time(probes, hashSet::contains);
+      int hashSetHits = hits;
+      long sortedNanos = time(probes, word -> Arrays.binarySearch(sorted, word) >= 0);
+      long lexiconNanos = time(probes, lexicon::contains);
+      if (hits != hashSetHits) {
+        throw new AssertionError("HashSet found " + hashSetHits + " words, Lexicon found " + hits);
+      }
+      if (round == 2) {
+        System.out.printf("lookup  HashSet %6.1f ns   sorted String[] %6.1f ns   Lexicon %6.1f ns%n",
+            (double) hashSetNanos / LOOKUPS, (double) sortedNanos / LOOKUPS, (double) lexiconNanos / LOOKUPS);
+      }
+    }
+
+    // Keep both alive until after the measurements
+    if (hashSet.size() != lexicon.size()) {
+      throw new AssertionError(hashSet.size() + " != " + lexicon.size());
+    }
+  }
+
+  private interface Lookup {
+    boolean contains(String word);
+  }
+
+  private static long time(String[] probes, Lookup lookup) {
+    int found = 0;
+    long start = System.nanoTime();
+    for (int i = 0; i < LOOKUPS; i++) {
+      if (lookup.contains(probes[i & (probes.length - 1)])) { found++; }
+    }
+    long elapsed = System.nanoTime() - start;
+    hits = found;
+    return elapsed;
+  }
+
+  // Pseudo-words of two to four syllables, with duplicates; also used by SpellCheckLoadTest
+  static List<String> generate(int count, Random random) {
+    List<String> words = new ArrayList<>(count);
+    while (words.size() < count) {
+      StringBuilder word = new StringBuilder();
+      for (int n = 2 + random.nextInt(3); n > 0; n--) {
+        word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+      }
+      words.add(word.toString());
+    }
+    return words;
+  }
+
+  // HashSet and HashMap objects, the bucket table, and per word a HashMap.Node, a String and its byte[]
+  private static long footprint(Set<String> set) {
+    int buckets = 16;
+    while (set.size() > buckets * 3L / 4) {
+      buckets *= 2;
+    }
+    long bytes = 16 + 48 + align(16 + 4L * buckets);
+    for (String word : set) {
+      boolean latin1 = word.chars().allMatch(c -> c < 0x100);
+      bytes += 32 + 24 + align(16 + (latin1 ? 1L : 2L) * word.length());
+    }
+    return bytes;
+  }
+
+  private static long align(long bytes) {
+    return (bytes + 7) & ~7L;
+  }
+}
@@ -0,0 +1,21 @@
+package content;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Recorded each time a Lexicon is built
+@Name("content.LexiconLoad")
+@Label("Lexicon Load")
+@Category({"Effective Java", "Spell Check"})
+@Description("Construction of a Lexicon for one language")
+@StackTrace(false)
+class LexiconLoadEvent extends jdk.jfr.Event {
+  @Label("Language")
+  String language;
+
+  @Label("Words")
+  int words;
+}
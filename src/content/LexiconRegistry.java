@@ -0,0 +1,134 @@
+package content;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Shares one Lexicon per language among all its callers. A language is loaded the first time it is asked for; threads
+ * that ask for it while it is loading wait for that load instead of starting their own.
+ *
+ * The registry keeps the total memoryBytes of its lexicons, completion indexes included, within a budget by evicting
+ * the least recently used languages after each load and each time a completion index is built. A lexicon larger than
+ * the whole budget is still kept until another language is loaded. Eviction only drops the registry's strong reference:
+ * a caller that still holds an evicted lexicon can keep using it, and as long as anyone does, the next get for its
+ * language brings that same instance back instead of loading a second copy. Only once it has been garbage collected is
+ * the language loaded again.
+ */
+public class LexiconRegistry {
+  // Registry used by the spell checkers in this package; budget in bytes from -Dcontent.lexiconBudget, 256 MiB default
+  public static final LexiconRegistry SHARED =
+      new LexiconRegistry(Long.getLong("content.lexiconBudget", 256L << 20), Lexicon::new);
+
+  private final long budgetBytes;
+  private final Function<String, Lexicon> loader;
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  // Evicted lexicons, which may still be in use elsewhere; reused by load rather than built twice
+  private final Map<String, WeakReference<Lexicon>> evicted = new ConcurrentHashMap<>();
+  private long residentBytes = 0; // Guarded by this
+
+  public LexiconRegistry(long budgetBytes, Function<String, Lexicon> loader) {
+    if (budgetBytes < 0) { throw new IllegalArgumentException("Negative budget: " + budgetBytes); }
+    this.budgetBytes = budgetBytes;
+    this.loader = Objects.requireNonNull(loader);
+  }
+
+  public Lexicon get(String language) {
+    Entry entry = entries.get(Objects.requireNonNull(language));
+    if (entry == null) {
+      Entry created = new Entry();
+      entry = entries.putIfAbsent(language, created);
+      if (entry == null) {
+        entry = created;
+        load(language, entry);
+      }
+    }
+    entry.lastUsed = System.nanoTime(); // A racy write is fine; eviction only needs a rough recency order
+    try {
+      return entry.lexicon.join();
+    } catch (CompletionException e) {
+      throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+    }
+  }
+
+  public long budgetBytes() { return budgetBytes; }
+
+  public synchronized long residentBytes() { return residentBytes; }
+
+  // Memory held by each resident language, by language name
+  public synchronized SortedMap<String, Long> residentBytesByLanguage() {
+    SortedMap<String, Long> result = new TreeMap<>();
+    entries.forEach((language, entry) -> {
+      if (entry.resident) { result.put(language, entry.bytes); }
+    });
+    return result;
+  }
+
+  private void load(String language, Entry entry) {
+    WeakReference<Lexicon> previous = evicted.remove(language);
+    Lexicon reusable = previous == null ? null : previous.get();
+    Lexicon lexicon;
+    try {
+      lexicon = reusable != null
+          ? reusable
+          : Objects.requireNonNull(loader.apply(language), "Loader returned null for " + language);
+    } catch (RuntimeException | Error e) {
+      entries.remove(language, entry); // Let the next caller try again
+      entry.lexicon.completeExceptionally(e);
+      throw e;
+    }
+    // Registered before accounting, so an index built meanwhile is either measured below or reported to grown
+    lexicon.onGrowth(() -> grown(entry, lexicon));
+    entry.lexicon.complete(lexicon);
+    synchronized (this) {
+      entry.bytes = lexicon.memoryBytes();
+      entry.resident = true;
+      residentBytes += entry.bytes;
+      evictOver(entry);
+    }
+  }
+
+  // Re-accounts a lexicon whose completion index was just built, evicting others if it no longer fits the budget
+  private synchronized void grown(Entry entry, Lexicon lexicon) {
+    if (!entry.resident) { return; } // Either not accounted yet, and then measured with its index, or evicted
+    long bytes = lexicon.memoryBytes();
+    residentBytes += bytes - entry.bytes;
+    entry.bytes = bytes;
+    evictOver(entry);
+  }
+
+  // Evicts least recently used languages, never the one just loaded or grown, until the budget is met
+  private void evictOver(Entry justLoaded) {
+    while (residentBytes > budgetBytes) {
+      String coldest = null;
+      Entry coldestEntry = null;
+      for (Map.Entry<String, Entry> e : entries.entrySet()) {
+        Entry candidate = e.getValue();
+        if (candidate.resident && candidate != justLoaded
+            && (coldestEntry == null || candidate.lastUsed - coldestEntry.lastUsed < 0)) {
+          coldest = e.getKey();
+          coldestEntry = candidate;
+        }
+      }
+      if (coldestEntry == null) { return; }
+      // Publish the weak reference first, so a get that no longer finds the entry finds the instance in its place
+      evicted.put(coldest, new WeakReference<>(coldestEntry.lexicon.join())); // Resident entries are loaded
+      entries.remove(coldest, coldestEntry);
+      coldestEntry.resident = false;
+      residentBytes -= coldestEntry.bytes;
+    }
+  }
+
+  private static final class Entry {
+    final CompletableFuture<Lexicon> lexicon = new CompletableFuture<>();
+    volatile long lastUsed = System.nanoTime();
+    long bytes;       // Guarded by the registry
+    boolean resident; // Guarded by the registry
+  }
+}
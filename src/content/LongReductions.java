@@ -0,0 +1,321 @@
+package content;
+
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongConsumer;
+
+/**
+ * Reductions over long ranges and primitive arrays that never box. Ranges are half-open: {@code sum(0, n)} adds
+ * 0, 1, ..., n - 1.
+ *
+ * The parallel variants split the work with fork/join. Each leaf reduces its slice into a local primitive and hands the
+ * partial result to a LongAdder (for sums) or LongAccumulator (for other operators), so producers never contend on a
+ * single field. Operators passed to the parallel variants must be associative and commutative, and identity must be
+ * their identity element, because partial results are combined in no particular order.
+ */
+public final class LongReductions {
+  // Below this many elements a slice is reduced sequentially
+  private static final int MIN_SLICE = 1 << 16;
+
+  private LongReductions() {
+    throw new AssertionError(); // Noninstantiable
+  }
+
+  // Sequential reductions over ranges
+
+  public static long sum(long fromInclusive, long toExclusive) {
+    checkRange(fromInclusive, toExclusive);
+    long sum = 0;
+    for (long i = fromInclusive; i < toExclusive; i++) {
+      sum += i;
+    }
+    return sum;
+  }
+
+  // Folds op over the range from left to right, as op(...op(op(identity, from), from + 1)..., to - 1)
+  public static long reduce(long fromInclusive, long toExclusive, long identity, LongBinaryOperator op) {
+    checkRange(fromInclusive, toExclusive);
+    Objects.requireNonNull(op);
+    long result = identity;
+    for (long i = fromInclusive; i < toExclusive; i++) {
+      result = op.applyAsLong(result, i);
+    }
+    return result;
+  }
+
+  // Sequential reductions over arrays
+
+  public static long sum(long[] a) {
+    long sum = 0;
+    for (long x : a) {
+      sum += x;
+    }
+    return sum;
+  }
+
+  public static long sum(int[] a) {
+    long sum = 0;
+    for (int x : a) {
+      sum += x;
+    }
+    return sum;
+  }
+
+  public static long min(long[] a) {
+    checkNotEmpty(a.length);
+    long min = a[0];
+    for (int i = 1; i < a.length; i++) {
+      min = Math.min(min, a[i]);
+    }
+    return min;
+  }
+
+  public static int min(int[] a) {
+    checkNotEmpty(a.length);
+    int min = a[0];
+    for (int i = 1; i < a.length; i++) {
+      min = Math.min(min, a[i]);
+    }
+    return min;
+  }
+
+  public static long max(long[] a) {
+    checkNotEmpty(a.length);
+    long max = a[0];
+    for (int i = 1; i < a.length; i++) {
+      max = Math.max(max, a[i]);
+    }
+    return max;
+  }
+
+  public static int max(int[] a) {
+    checkNotEmpty(a.length);
+    int max = a[0];
+    for (int i = 1; i < a.length; i++) {
+      max = Math.max(max, a[i]);
+    }
+    return max;
+  }
+
+  public static long reduce(long[] a, long identity, LongBinaryOperator op) {
+    Objects.requireNonNull(op);
+    long result = identity;
+    for (long x : a) {
+      result = op.applyAsLong(result, x);
+    }
+    return result;
+  }
+
+  // Elements are widened to long before op sees them
+  public static long reduce(int[] a, long identity, LongBinaryOperator op) {
+    Objects.requireNonNull(op);
+    long result = identity;
+    for (int x : a) {
+      result = op.applyAsLong(result, x);
+    }
+    return result;
+  }
+
+  // Parallel reductions over ranges
+
+  public static long parallelSum(long fromInclusive, long toExclusive) {
+    LongAdder sum = new LongAdder();
+    parallelSum(fromInclusive, toExclusive, sum);
+    return sum.sum();
+  }
+
+  /**
+   * Adds the sum of the range to the given adder. Several producers may feed the same adder concurrently, each with its
+   * own range, and read the grand total once they are all done.
+   */
+  public static void parallelSum(long fromInclusive, long toExclusive, LongAdder sink) {
+    checkRange(fromInclusive, toExclusive);
+    ForkJoinPool.commonPool().invoke(
+        new RangeTask(fromInclusive, toExclusive, sliceFor(toExclusive - fromInclusive), 0, Long::sum, sink::add));
+  }
+
+  public static long parallelReduce(long fromInclusive, long toExclusive, long identity, LongBinaryOperator op) {
+    checkRange(fromInclusive, toExclusive);
+    LongAccumulator result = new LongAccumulator(Objects.requireNonNull(op), identity);
+    ForkJoinPool.commonPool().invoke(new RangeTask(fromInclusive, toExclusive,
+        sliceFor(toExclusive - fromInclusive), identity, op, result::accumulate));
+    return result.get();
+  }
+
+  // Parallel reductions over arrays
+
+  public static long parallelSum(long[] a) {
+    LongAdder sum = new LongAdder();
+    ForkJoinPool.commonPool().invoke(new ArrayTask(a, 0, a.length, sliceFor(a.length), 0, Long::sum, sum::add));
+    return sum.sum();
+  }
+
+  public static long parallelMin(long[] a) {
+    checkNotEmpty(a.length);
+    return parallelReduce(a, Long.MAX_VALUE, Math::min);
+  }
+
+  public static long parallelMax(long[] a) {
+    checkNotEmpty(a.length);
+    return parallelReduce(a, Long.MIN_VALUE, Math::max);
+  }
+
+  public static long parallelReduce(long[] a, long identity, LongBinaryOperator op) {
+    LongAccumulator result = new LongAccumulator(Objects.requireNonNull(op), identity);
+    ForkJoinPool.commonPool().invoke(
+        new ArrayTask(a, 0, a.length, sliceFor(a.length), identity, op, result::accumulate));
+    return result.get();
+  }
+
+  public static long parallelSum(int[] a) {
+    LongAdder sum = new LongAdder();
+    ForkJoinPool.commonPool().invoke(new IntArrayTask(a, 0, a.length, sliceFor(a.length), 0, Long::sum, sum::add));
+    return sum.sum();
+  }
+
+  public static int parallelMin(int[] a) {
+    checkNotEmpty(a.length);
+    return (int) parallelReduce(a, Integer.MAX_VALUE, Math::min);
+  }
+
+  public static int parallelMax(int[] a) {
+    checkNotEmpty(a.length);
+    return (int) parallelReduce(a, Integer.MIN_VALUE, Math::max);
+  }
+
+  // Elements are widened to long before op sees them
+  public static long parallelReduce(int[] a, long identity, LongBinaryOperator op) {
+    LongAccumulator result = new LongAccumulator(Objects.requireNonNull(op), identity);
+    ForkJoinPool.commonPool().invoke(
+        new IntArrayTask(a, 0, a.length, sliceFor(a.length), identity, op, result::accumulate));
+    return result.get();
+  }
+
+  // Aim for a few slices per worker so that work stealing can balance uneven progress. The length is unsigned, since
+  // a range from a negative to a positive bound can hold more than Long.MAX_VALUE values.
+  private static long sliceFor(long length) {
+    return Math.max(MIN_SLICE, Long.divideUnsigned(length, 4L * ForkJoinPool.getCommonPoolParallelism()));
+  }
+
+  private static void checkRange(long fromInclusive, long toExclusive) {
+    if (fromInclusive > toExclusive) {
+      throw new IllegalArgumentException("fromInclusive(" + fromInclusive + ") > toExclusive(" + toExclusive + ")");
+    }
+  }
+
+  private static void checkNotEmpty(int length) {
+    if (length == 0) { throw new IllegalArgumentException("Empty array"); }
+  }
+
+  // Splits a range in halves until it is no larger than slice, then hands each slice's partial result to the sink.
+  // Lengths are compared unsigned, as to - from overflows for ranges of more than Long.MAX_VALUE values.
+  @SuppressWarnings("serial")
+  private static final class RangeTask extends RecursiveAction {
+    private final long from;
+    private final long to;
+    private final long slice;
+    private final long identity;
+    private final LongBinaryOperator op;
+    private final LongConsumer sink;
+
+    RangeTask(long from, long to, long slice, long identity, LongBinaryOperator op, LongConsumer sink) {
+      this.from = from;
+      this.to = to;
+      this.slice = slice;
+      this.identity = identity;
+      this.op = op;
+      this.sink = sink;
+    }
+
+    @Override
+    protected void compute() {
+      if (Long.compareUnsigned(to - from, slice) <= 0) {
+        long result = identity;
+        for (long i = from; i < to; i++) {
+          result = op.applyAsLong(result, i);
+        }
+        sink.accept(result);
+        return;
+      }
+      long mid = from + ((to - from) >>> 1);
+      invokeAll(new RangeTask(from, mid, slice, identity, op, sink),
+          new RangeTask(mid, to, slice, identity, op, sink));
+    }
+  }
+
+  @SuppressWarnings("serial")
+  private static final class ArrayTask extends RecursiveAction {
+    private final long[] a;
+    private final int from;
+    private final int to;
+    private final long slice;
+    private final long identity;
+    private final LongBinaryOperator op;
+    private final LongConsumer sink;
+
+    ArrayTask(long[] a, int from, int to, long slice, long identity, LongBinaryOperator op, LongConsumer sink) {
+      this.a = a;
+      this.from = from;
+      this.to = to;
+      this.slice = slice;
+      this.identity = identity;
+      this.op = op;
+      this.sink = sink;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= slice) {
+        long result = identity;
+        for (int i = from; i < to; i++) {
+          result = op.applyAsLong(result, a[i]);
+        }
+        sink.accept(result);
+        return;
+      }
+      int mid = (from + to) >>> 1;
+      invokeAll(new ArrayTask(a, from, mid, slice, identity, op, sink),
+          new ArrayTask(a, mid, to, slice, identity, op, sink));
+    }
+  }
+
+  @SuppressWarnings("serial")
+  private static final class IntArrayTask extends RecursiveAction {
+    private final int[] a;
+    private final int from;
+    private final int to;
+    private final long slice;
+    private final long identity;
+    private final LongBinaryOperator op;
+    private final LongConsumer sink;
+
+    IntArrayTask(int[] a, int from, int to, long slice, long identity, LongBinaryOperator op, LongConsumer sink) {
+      this.a = a;
+      this.from = from;
+      this.to = to;
+      this.slice = slice;
+      this.identity = identity;
+      this.op = op;
+      this.sink = sink;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= slice) {
+        long result = identity;
+        for (int i = from; i < to; i++) {
+          result = op.applyAsLong(result, a[i]);
+        }
+        sink.accept(result);
+        return;
+      }
+      int mid = (from + to) >>> 1;
+      invokeAll(new IntArrayTask(a, from, mid, slice, identity, op, sink),
+          new IntArrayTask(a, mid, to, slice, identity, op, sink));
+    }
+  }
+}
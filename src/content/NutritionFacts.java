@@ -8,6 +8,7 @@ public class NutritionFacts {
   private final int fat;
   private final int sodium;
   private final int carbohydrate;
+  private int hashCode; // Automatically initialized to 0
 
   public static class Builder {
     // Required parameters
@@ -62,4 +63,40 @@ public class NutritionFacts {
     carbohydrate = builder.carbohydrate;
   }
 
+  // Returns the canonical instance equal to this one, shared by every caller that interns an equal value
+  public NutritionFacts intern() {
+    return NutritionFactsInterner.shared().intern(this);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (o == this) { return true; }
+    if (!(o instanceof NutritionFacts)) { return false; }
+    NutritionFacts nf = (NutritionFacts) o;
+    return nf.servingSize == servingSize && nf.servings == servings
+        && nf.calories == calories && nf.fat == fat
+        && nf.sodium == sodium && nf.carbohydrate == carbohydrate;
+  }
+
+  // hashCode method with lazily initialized cached hash code
+  @Override
+  public int hashCode() {
+    int result = hashCode;
+    if (result == 0) {
+      result = Integer.hashCode(servingSize);
+      result = 31 * result + Integer.hashCode(servings);
+      result = 31 * result + Integer.hashCode(calories);
+      result = 31 * result + Integer.hashCode(fat);
+      result = 31 * result + Integer.hashCode(sodium);
+      result = 31 * result + Integer.hashCode(carbohydrate);
+      hashCode = result;
+    }
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("NutritionFacts[servingSize=%d, servings=%d, calories=%d, fat=%d, sodium=%d, carbohydrate=%d]",
+        servingSize, servings, calories, fat, sodium, carbohydrate);
+  }
 }
\ No newline at end of file
@@ -0,0 +1,190 @@
+package content;
+
+import java.lang.ref.WeakReference;
+import java.util.Objects;
+
+/**
+ * Concurrent intern table that maps equal NutritionFacts to one canonical instance.
+ *
+ * The table is split into independently locked segments. Each segment is open addressed with linear probing and keeps
+ * the cached hash codes in a primitive int array next to an array of weak references, so a probe compares ints before
+ * it ever touches a referent. Canonical instances that are no longer used elsewhere are reclaimed by the garbage
+ * collector; their slots are skipped on lookup, reused on insert and dropped when the segment is rehashed.
+ */
+public final class NutritionFactsInterner {
+  private static final NutritionFactsInterner SHARED = new NutritionFactsInterner();
+
+  // Object header plus six int fields and the cached hash code, rounded up to 8-byte alignment
+  static final int INSTANCE_BYTES = 40;
+  // Object header plus referent, queue, next and discovered fields, as for the 12-byte header of compressed oops
+  private static final int WEAK_REFERENCE_BYTES = 32;
+
+  private static final int SEGMENT_COUNT = 16; // Must be a power of two
+  private static final int INITIAL_SEGMENT_CAPACITY = 16; // Must be a power of two
+
+  private final Segment[] segments = new Segment[SEGMENT_COUNT];
+
+  public NutritionFactsInterner() {
+    for (int i = 0; i < segments.length; i++) {
+      segments[i] = new Segment();
+    }
+  }
+
+  // The table used by NutritionFacts.intern; its statistics cover every value interned that way
+  public static NutritionFactsInterner shared() {
+    return SHARED;
+  }
+
+  /**
+   * Returns the canonical instance equal to the given facts. If no equal instance is live, the argument itself becomes
+   * the canonical instance.
+   */
+  public NutritionFacts intern(NutritionFacts facts) {
+    Objects.requireNonNull(facts);
+    int hash = spread(facts.hashCode());
+    return segments[hash & (SEGMENT_COUNT - 1)].intern(facts, hash);
+  }
+
+  // Number of live canonical instances
+  public int size() {
+    int size = 0;
+    for (Segment segment : segments) {
+      size += segment.liveCount();
+    }
+    return size;
+  }
+
+  // Number of intern calls that returned an existing instance in place of a distinct, equal argument. Calls that pass
+  // the canonical instance itself are not counted, as they avoid nothing.
+  public long duplicatesAvoided() {
+    long hits = 0;
+    for (Segment segment : segments) {
+      hits += segment.hits();
+    }
+    return hits;
+  }
+
+  // Estimated heap taken by the table itself: the segments, their arrays and one weak reference per occupied slot
+  public long overheadBytes() {
+    long bytes = 16 + align(16 + 4L * SEGMENT_COUNT);
+    for (Segment segment : segments) {
+      bytes += segment.overheadBytes();
+    }
+    return bytes;
+  }
+
+  // Estimated heap saved by letting duplicates be collected in favour of their canonical instance, net of the table's
+  // own overhead. Negative while the table costs more than the duplicates it has avoided so far.
+  public long bytesSaved() {
+    return duplicatesAvoided() * INSTANCE_BYTES - overheadBytes();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("NutritionFactsInterner[canonical=%d, duplicatesAvoided=%d, overheadBytes=%d, bytesSaved=%d]",
+        size(), duplicatesAvoided(), overheadBytes(), bytesSaved());
+  }
+
+  private static long align(long bytes) {
+    return (bytes + 7) & ~7L;
+  }
+
+  // Mixes the high bits into the low ones, which select both the segment and the slot
+  private static int spread(int h) {
+    h ^= h >>> 16;
+    h *= 0x45d9f3b;
+    return h ^ (h >>> 16);
+  }
+
+  private static final class Segment {
+    private int[] hashes = new int[INITIAL_SEGMENT_CAPACITY];
+    private WeakReference<NutritionFacts>[] refs = newRefs(INITIAL_SEGMENT_CAPACITY);
+    private int used = 0; // Occupied slots, including those whose referent has been collected
+    private long hits = 0;
+
+    synchronized NutritionFacts intern(NutritionFacts facts, int hash) {
+      int mask = refs.length - 1;
+      int reusable = -1;
+      // Segment index consumed the low bits, so probe on the remaining ones
+      for (int i = (hash >>> 4) & mask; ; i = (i + 1) & mask) {
+        WeakReference<NutritionFacts> ref = refs[i];
+        if (ref == null) {
+          break;
+        }
+        NutritionFacts existing = ref.get();
+        if (existing == null) {
+          if (reusable < 0) { reusable = i; }
+        } else if (hashes[i] == hash && existing.equals(facts)) {
+          if (existing != facts) { hits++; }
+          return existing;
+        }
+      }
+
+      if (reusable >= 0) {
+        hashes[reusable] = hash;
+        refs[reusable] = new WeakReference<>(facts);
+        return facts;
+      }
+      if (2 * (used + 1) > refs.length) { // Keep the load factor at or below 0.5
+        rehash();
+        mask = refs.length - 1;
+      }
+      int i = (hash >>> 4) & mask;
+      while (refs[i] != null) {
+        i = (i + 1) & mask;
+      }
+      hashes[i] = hash;
+      refs[i] = new WeakReference<>(facts);
+      used++;
+      return facts;
+    }
+
+    synchronized int liveCount() {
+      int live = 0;
+      for (WeakReference<NutritionFacts> ref : refs) {
+        if (ref != null && ref.get() != null) { live++; }
+      }
+      return live;
+    }
+
+    synchronized long hits() {
+      return hits;
+    }
+
+    // The segment object, both arrays, and the weak references of the occupied slots
+    synchronized long overheadBytes() {
+      return 32 + 2 * align(16 + 4L * refs.length) + (long) used * WEAK_REFERENCE_BYTES;
+    }
+
+    // Drops collected entries and grows the table only if the live entries still need the room
+    private void rehash() {
+      int live = liveCount();
+      int capacity = refs.length;
+      while (2 * (live + 1) > capacity) {
+        capacity <<= 1;
+      }
+      int[] oldHashes = hashes;
+      WeakReference<NutritionFacts>[] oldRefs = refs;
+      hashes = new int[capacity];
+      refs = newRefs(capacity);
+      used = 0;
+      int mask = capacity - 1;
+      for (int j = 0; j < oldRefs.length; j++) {
+        WeakReference<NutritionFacts> ref = oldRefs[j];
+        if (ref == null || ref.get() == null) { continue; }
+        int i = (oldHashes[j] >>> 4) & mask;
+        while (refs[i] != null) {
+          i = (i + 1) & mask;
+        }
+        hashes[i] = oldHashes[j];
+        refs[i] = ref;
+        used++;
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static WeakReference<NutritionFacts>[] newRefs(int capacity) {
+      return (WeakReference<NutritionFacts>[]) new WeakReference<?>[capacity];
+    }
+  }
+}
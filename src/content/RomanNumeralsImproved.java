@@ -8,6 +8,9 @@ public class RomanNumeralsImproved {
                     + "(X[CL]|L?X{0,3})(I[XV]|V?I{0,3})$");
 
     public static boolean isRomanNumeral(String s) {
-        return ROMAN.matcher(s).matches();
+        long start = HotPathMetrics.start();
+        boolean matches = ROMAN.matcher(s).matches();
+        HotPathMetrics.ROMAN_NUMERAL.stop(start);
+        return matches;
     }
 }
@@ -0,0 +1,137 @@
+package content;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Blocking client for SpellCheckServer. The batch methods pipeline their requests in windows of WINDOW words: a whole
+ * window is written before its first response is read, so it costs one round trip rather than one per word. Reading
+ * each window's responses before sending the next keeps a batch of any size within what the server is willing to
+ * queue for a client, which otherwise stops reading until the client drains its responses.
+ *
+ * Instances are not thread-safe; give each thread its own client. Close the client when done with it.
+ */
+public class SpellCheckClient implements AutoCloseable {
+  // Requests written before their responses are read; small enough that the responses fit in the server's queue
+  private static final int WINDOW = 1024;
+
+  private final Socket socket;
+  private final DataInputStream in;
+  private final DataOutputStream out;
+
+  public SpellCheckClient(InetSocketAddress address) throws IOException {
+    socket = new Socket();
+    try {
+      socket.setTcpNoDelay(true);
+      socket.connect(address);
+      in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+      out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    } catch (IOException e) {
+      socket.close();
+      throw e;
+    }
+  }
+
+  public boolean isValid(String word) throws IOException {
+    return batchIsValid(Collections.singletonList(word))[0];
+  }
+
+  public List<String> suggestions(String typo) throws IOException {
+    return batchSuggestions(Collections.singletonList(typo)).get(0);
+  }
+
+  public boolean[] batchIsValid(List<String> words) throws IOException {
+    boolean[] valid = new boolean[words.size()];
+    for (int start = 0; start < valid.length; start += WINDOW) {
+      int end = Math.min(valid.length, start + WINDOW);
+      send(SpellCheckProtocol.IS_VALID, words.subList(start, end));
+      for (int i = start; i < end; i++) {
+        int length = readFrameLength();
+        if (length != 1) {
+          throw new IOException("Unexpected isValid response length: " + length);
+        }
+        valid[i] = in.readByte() != 0;
+      }
+    }
+    return valid;
+  }
+
+  public List<List<String>> batchSuggestions(List<String> typos) throws IOException {
+    List<List<String>> result = new ArrayList<>(typos.size());
+    for (int start = 0; start < typos.size(); start += WINDOW) {
+      int end = Math.min(typos.size(), start + WINDOW);
+      send(SpellCheckProtocol.SUGGESTIONS, typos.subList(start, end));
+      for (int i = start; i < end; i++) {
+        byte[] frame = new byte[readFrameLength()];
+        in.readFully(frame);
+        result.add(parseSuggestions(frame));
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public void close() throws IOException {
+    socket.close();
+  }
+
+  private void send(byte op, List<String> words) throws IOException {
+    for (String word : words) {
+      byte[] bytes = SpellCheckProtocol.encode(word);
+      if (1 + bytes.length > SpellCheckProtocol.MAX_FRAME_LENGTH) {
+        throw new IllegalArgumentException("Word too long: " + bytes.length + " bytes");
+      }
+      out.writeInt(1 + bytes.length);
+      out.writeByte(op);
+      out.write(bytes);
+    }
+    out.flush();
+  }
+
+  // Checks every count and length against the frame, so a malformed response fails with IOException
+  private static List<String> parseSuggestions(byte[] frame) throws IOException {
+    if (frame.length < Integer.BYTES) {
+      throw new IOException("Suggestions response too short: " + frame.length + " bytes");
+    }
+    int count = readInt(frame, 0);
+    // Each suggestion takes at least its length prefix, which bounds count before anything is allocated
+    if (count < 0 || count > (frame.length - Integer.BYTES) / Integer.BYTES) {
+      throw new IOException("Bad suggestion count: " + count);
+    }
+    List<String> suggestions = new ArrayList<>(count);
+    for (int offset = Integer.BYTES; suggestions.size() < count; ) {
+      if (frame.length - offset < Integer.BYTES) {
+        throw new IOException("Suggestions response truncated at byte " + offset);
+      }
+      int length = readInt(frame, offset);
+      offset += Integer.BYTES;
+      if (length < 0 || length > frame.length - offset) {
+        throw new IOException("Bad suggestion length: " + length);
+      }
+      suggestions.add(SpellCheckProtocol.decode(frame, offset, length));
+      offset += length;
+    }
+    return suggestions;
+  }
+
+  private int readFrameLength() throws IOException {
+    int length = in.readInt();
+    if (length < 0 || length > SpellCheckProtocol.MAX_FRAME_LENGTH) {
+      throw new IOException("Bad frame length: " + length);
+    }
+    return length;
+  }
+
+  private static int readInt(byte[] bytes, int offset) {
+    return (bytes[offset] & 0xff) << 24 | (bytes[offset + 1] & 0xff) << 16
+        | (bytes[offset + 2] & 0xff) << 8 | (bytes[offset + 3] & 0xff);
+  }
+}
@@ -0,0 +1,105 @@
+package content;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Starts a SpellCheckServer on loopback and drives it from several client threads, each pipelining batches of
+ * requests, then reports throughput and batch round-trip latency.
+ *
+ * The server checks against the distinct words among 200,000 generated pseudo-words (see LexiconBenchmark). Half of the
+ * probes are words from it and half are those words with a letter appended, so batchIsValid does real lookups with both
+ * outcomes, and its answers are verified.
+ *
+ * Run with: java content.SpellCheckLoadTest [clients] [batchesPerClient] [batchSize]
+ */
+public class SpellCheckLoadTest {
+  private static final int BATCHES_PER_CLIENT = 16; // Distinct batches each client cycles through
+
+  public static void main(String[] args) throws Exception {
+    int clients = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+    int batches = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+    int batchSize = args.length > 2 ? Integer.parseInt(args[2]) : 32;
+
+    Map<String, Integer> frequencies = new HashMap<>();
+    for (String word : LexiconBenchmark.generate(200_000, new Random(42))) {
+      frequencies.merge(word, 1, Integer::sum);
+    }
+    String[] words = frequencies.keySet().toArray(new String[0]);
+    Lexicon lexicon = new Lexicon("English", frequencies);
+
+    try (SpellCheckServer server = SpellCheckServer.onLoopback(new SpellCheckerInjection(lexicon))) {
+      long[][] latencies = new long[clients][batches];
+      CountDownLatch start = new CountDownLatch(1);
+      CountDownLatch done = new CountDownLatch(clients);
+      AtomicReference<IOException> failure = new AtomicReference<>();
+
+      for (int c = 0; c < clients; c++) {
+        long[] clientLatencies = latencies[c];
+        Random random = new Random(c);
+        List<List<String>> probes = new ArrayList<>(BATCHES_PER_CLIENT);
+        for (int b = 0; b < BATCHES_PER_CLIENT; b++) {
+          List<String> batch = new ArrayList<>(batchSize);
+          for (int i = 0; i < batchSize; i++) {
+            String word = words[random.nextInt(words.length)];
+            batch.add(i % 2 == 0 ? word : word + "q"); // "q" ends none of the syllables, so these are misses
+          }
+          probes.add(batch);
+        }
+        Thread thread = new Thread(() -> {
+          try (SpellCheckClient client = new SpellCheckClient(server.address())) {
+            start.await();
+            for (int b = 0; b < batches; b++) {
+              List<String> batch = probes.get(b % BATCHES_PER_CLIENT);
+              long t0 = System.nanoTime();
+              if (b % 2 == 0) {
+                boolean[] valid = client.batchIsValid(batch);
+                clientLatencies[b] = System.nanoTime() - t0;
+                for (int i = 0; i < valid.length; i++) {
+                  if (valid[i] != (i % 2 == 0)) {
+                    throw new IOException("Wrong answer for " + batch.get(i) + ": " + valid[i]);
+                  }
+                }
+              } else {
+                client.batchSuggestions(batch);
+                clientLatencies[b] = System.nanoTime() - t0;
+              }
+            }
+          } catch (IOException e) {
+            failure.compareAndSet(null, e);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          } finally {
+            done.countDown();
+          }
+        }, "spell-check-client-" + c);
+        thread.start();
+      }
+
+      long t0 = System.nanoTime();
+      start.countDown();
+      done.await();
+      long elapsed = System.nanoTime() - t0;
+      if (failure.get() != null) {
+        throw failure.get();
+      }
+
+      long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+      long requests = (long) clients * batches * batchSize;
+      System.out.printf("lexicon      %,d words%n", lexicon.size());
+      System.out.printf("%d clients x %d batches x %d words = %d requests in %.3f s%n",
+          clients, batches, batchSize, requests, elapsed / 1e9);
+      System.out.printf("throughput   %,.0f requests/s%n", requests / (elapsed / 1e9));
+      System.out.printf("batch p50    %,.1f us%n", all[all.length / 2] / 1e3);
+      System.out.printf("batch p99    %,.1f us%n", all[(int) (all.length * 0.99)] / 1e3);
+      System.out.printf("per request  %,.2f us (p50 batch / batch size)%n", all[all.length / 2] / 1e3 / batchSize);
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package content;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Wire format shared by SpellCheckServer and SpellCheckClient. Every frame is a 4-byte big-endian length followed by
+ * that many bytes of payload.
+ *
+ * Request payload:  op (1 byte), word (UTF-8, the rest of the frame)
+ * Response payload: for IS_VALID, 1 byte (0 or 1)
+ *                   for SUGGESTIONS, count (int), then count times: length (int), word (UTF-8)
+ *
+ * Requests may be pipelined; responses on a connection come back in request order.
+ */
+final class SpellCheckProtocol {
+  static final byte IS_VALID = 0;
+  static final byte SUGGESTIONS = 1;
+
+  // Upper bound on a single frame, so a corrupt length cannot make either side allocate without limit
+  static final int MAX_FRAME_LENGTH = 1 << 20;
+
+  private SpellCheckProtocol() {
+    throw new AssertionError(); // Noninstantiable
+  }
+
+  static byte[] encode(String word) {
+    return word.getBytes(StandardCharsets.UTF_8);
+  }
+
+  static String decode(byte[] bytes, int offset, int length) {
+    return new String(bytes, offset, length, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,321 @@
+package content;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Serves one SpellCheckerInjection to other processes on the same machine, so they can share a single copy of the
+ * dictionary. See SpellCheckProtocol for the wire format.
+ *
+ * A single selector thread does all the work. Each time it wakes up it reads every complete frame available on every
+ * ready connection, answers all of them with one batchIsValid and one batchSuggestions call, and queues the responses
+ * back in request order. Under load, many requests therefore share one pass over the index.
+ *
+ * Close the server when it is no longer needed, preferably with try-with-resources.
+ */
+public class SpellCheckServer implements AutoCloseable {
+  private static final System.Logger LOG = System.getLogger(SpellCheckServer.class.getName());
+
+  // Stop reading from a client that has this many response bytes queued but is not draining them
+  private static final int MAX_PENDING_OUTPUT = 1 << 20;
+  // Largest input buffer per client: one frame of the maximum length. A client that sends faster than this is read
+  // is left waiting in its socket buffer
+  private static final int MAX_PENDING_INPUT = Integer.BYTES + SpellCheckProtocol.MAX_FRAME_LENGTH;
+
+  private final SpellCheckerInjection checker;
+  private final Selector selector;
+  private final ServerSocketChannel serverChannel;
+  private final Thread thread;
+  private volatile boolean closed = false;
+
+  public SpellCheckServer(SpellCheckerInjection checker, InetSocketAddress address) throws IOException {
+    this.checker = Objects.requireNonNull(checker);
+    selector = Selector.open();
+    serverChannel = ServerSocketChannel.open();
+    try {
+      serverChannel.bind(address);
+      serverChannel.configureBlocking(false);
+      serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    } catch (IOException e) {
+      serverChannel.close();
+      selector.close();
+      throw e;
+    }
+    thread = new Thread(this::run, "spell-check-server");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  // Listens on an ephemeral loopback port; see address() for the port actually chosen
+  public static SpellCheckServer onLoopback(SpellCheckerInjection checker) throws IOException {
+    return new SpellCheckServer(checker, new InetSocketAddress("127.0.0.1", 0));
+  }
+
+  public InetSocketAddress address() throws IOException {
+    return (InetSocketAddress) serverChannel.getLocalAddress();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) { return; }
+    closed = true;
+    selector.wakeup();
+    try {
+      thread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void run() {
+    List<Request> batch = new ArrayList<>();
+    Set<Connection> touched = new LinkedHashSet<>();
+    try {
+      while (!closed) {
+        selector.select();
+        for (SelectionKey key : selector.selectedKeys()) {
+          if (!key.isValid()) { continue; }
+          if (key.isAcceptable()) {
+            try {
+              accept();
+            } catch (IOException e) {
+              // Out of file descriptors, or the client gave up before it was accepted; keep serving the others
+              LOG.log(System.Logger.Level.WARNING, "Failed to accept a connection", e);
+            }
+            continue;
+          }
+          Connection connection = (Connection) key.attachment();
+          try {
+            if (key.isWritable()) {
+              connection.flush();
+            }
+            if (key.isValid() && key.isReadable()) {
+              connection.read(batch);
+            }
+          } catch (IOException e) {
+            connection.close(); // This client is gone or broke the protocol; the others are unaffected
+          }
+        }
+        selector.selectedKeys().clear();
+
+        dispatch(batch, touched);
+        for (Connection connection : touched) {
+          try {
+            connection.flush();
+          } catch (IOException e) {
+            connection.close();
+          }
+        }
+        batch.clear();
+        touched.clear();
+      }
+    } catch (IOException | ClosedSelectorException e) {
+      // Fall through and release everything; clients see their connections closed
+      if (!closed) {
+        LOG.log(System.Logger.Level.ERROR, "Selector failed, shutting down", e);
+      }
+    } finally {
+      for (SelectionKey key : selector.keys()) {
+        try {
+          key.channel().close();
+        } catch (IOException e) {
+          // Nothing more can be done for this channel
+        }
+      }
+      try {
+        selector.close();
+      } catch (IOException e) {
+        // Ignore, the server is shutting down anyway
+      }
+    }
+  }
+
+  private void accept() throws IOException {
+    SocketChannel channel = serverChannel.accept();
+    if (channel == null) { return; }
+    try {
+      channel.configureBlocking(false);
+      channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+      SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+      key.attach(new Connection(channel, key));
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  // Answers the whole batch with one call per operation, then queues the responses in request order. If the checker
+  // fails, the clients in this batch can no longer get their responses in order, so only their connections are closed.
+  private void dispatch(List<Request> batch, Set<Connection> touched) {
+    if (batch.isEmpty()) { return; }
+    List<String> validityWords = new ArrayList<>();
+    List<String> typos = new ArrayList<>();
+    for (Request request : batch) {
+      (request.op == SpellCheckProtocol.IS_VALID ? validityWords : typos).add(request.word);
+    }
+    boolean[] valid;
+    List<List<String>> suggestions;
+    try {
+      valid = validityWords.isEmpty() ? new boolean[0] : checker.batchIsValid(validityWords);
+      suggestions = typos.isEmpty() ? List.of() : checker.batchSuggestions(typos);
+    } catch (RuntimeException e) {
+      LOG.log(System.Logger.Level.ERROR, "Spell checker failed on a batch of " + batch.size() + " requests", e);
+      for (Request request : batch) {
+        request.connection.close();
+      }
+      return;
+    }
+
+    int nextValid = 0;
+    int nextSuggestions = 0;
+    for (Request request : batch) {
+      if (request.op == SpellCheckProtocol.IS_VALID) {
+        request.connection.respond(valid[nextValid++]);
+      } else {
+        request.connection.respond(suggestions.get(nextSuggestions++));
+      }
+      touched.add(request.connection);
+    }
+  }
+
+  private static final class Request {
+    final Connection connection;
+    final byte op;
+    final String word;
+
+    Request(Connection connection, byte op, String word) {
+      this.connection = connection;
+      this.op = op;
+      this.word = word;
+    }
+  }
+
+  private static final class Connection {
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private ByteBuffer in = ByteBuffer.allocate(4096);  // Write mode
+    private ByteBuffer out = ByteBuffer.allocate(4096); // Write mode
+
+    Connection(SocketChannel channel, SelectionKey key) {
+      this.channel = channel;
+      this.key = key;
+    }
+
+    // Reads what is available, up to MAX_PENDING_INPUT buffered bytes, and appends every complete frame to batch.
+    // Anything beyond the cap stays in the socket and is read on a later wakeup.
+    void read(List<Request> batch) throws IOException {
+      int n = 0;
+      do {
+        if (!in.hasRemaining()) {
+          if (in.capacity() == MAX_PENDING_INPUT) { break; }
+          in = grow(in, in.capacity(), MAX_PENDING_INPUT);
+        }
+      } while ((n = channel.read(in)) > 0);
+      in.flip();
+      while (in.remaining() >= Integer.BYTES) {
+        int length = in.getInt(in.position());
+        if (length < 1 || length > SpellCheckProtocol.MAX_FRAME_LENGTH) {
+          throw new IOException("Bad frame length: " + length);
+        }
+        if (in.remaining() < Integer.BYTES + length) {
+          if (in.capacity() < Integer.BYTES + length) {
+            in.compact();
+            in = grow(in, Integer.BYTES + length, MAX_PENDING_INPUT);
+            in.flip();
+          }
+          break;
+        }
+        in.getInt();
+        byte op = in.get();
+        if (op != SpellCheckProtocol.IS_VALID && op != SpellCheckProtocol.SUGGESTIONS) {
+          throw new IOException("Bad op: " + op);
+        }
+        String word = SpellCheckProtocol.decode(in.array(), in.arrayOffset() + in.position(), length - 1);
+        in.position(in.position() + length - 1);
+        batch.add(new Request(this, op, word));
+      }
+      in.compact();
+      if (n < 0) {
+        throw new IOException("Closed by client");
+      }
+      updateInterest();
+    }
+
+    void respond(boolean valid) {
+      ensureOutput(Integer.BYTES + 1);
+      out.putInt(1).put((byte) (valid ? 1 : 0));
+    }
+
+    void respond(List<String> suggestions) {
+      List<byte[]> encoded = new ArrayList<>(suggestions.size());
+      int length = Integer.BYTES;
+      for (String suggestion : suggestions) {
+        byte[] bytes = SpellCheckProtocol.encode(suggestion);
+        encoded.add(bytes);
+        length += Integer.BYTES + bytes.length;
+      }
+      ensureOutput(Integer.BYTES + length);
+      out.putInt(length).putInt(encoded.size());
+      for (byte[] bytes : encoded) {
+        out.putInt(bytes.length).put(bytes);
+      }
+    }
+
+    // Writes as much as the socket takes, and only waits for writability while something is left over
+    void flush() throws IOException {
+      if (!key.isValid()) { return; }
+      out.flip();
+      channel.write(out);
+      out.compact();
+      updateInterest();
+    }
+
+    // Waits for writability while output is left over, and for readability while both buffers are below their caps
+    private void updateInterest() {
+      int interest = out.position() > 0 ? SelectionKey.OP_WRITE : 0;
+      if (out.position() < MAX_PENDING_OUTPUT && in.hasRemaining()) {
+        interest |= SelectionKey.OP_READ;
+      }
+      key.interestOps(interest);
+    }
+
+    void close() {
+      key.cancel();
+      try {
+        channel.close();
+      } catch (IOException e) {
+        // Already broken; nothing left to release
+      }
+    }
+
+    private void ensureOutput(int bytes) {
+      if (out.remaining() < bytes) {
+        out = grow(out, out.position() + bytes, Integer.MAX_VALUE);
+      }
+    }
+
+    // Doubles the capacity until it holds minCapacity bytes, but never beyond maxCapacity
+    private static ByteBuffer grow(ByteBuffer buffer, int minCapacity, int maxCapacity) {
+      int capacity = buffer.capacity();
+      while (capacity < minCapacity || capacity == buffer.capacity()) {
+        capacity *= 2;
+      }
+      ByteBuffer bigger = ByteBuffer.allocate(Math.max(minCapacity, Math.min(capacity, maxCapacity)));
+      buffer.flip();
+      bigger.put(buffer);
+      return bigger;
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package content;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
@@ -12,7 +13,58 @@ public class SpellCheckerInjection {
         this.dictionary = Objects.requireNonNull(dictionary);
     }
 
-    public boolean isValid(String word) { return true; }
+    // Spell checker for a language, sharing its lexicon with every other user of LexiconRegistry.SHARED
+    public static SpellCheckerInjection forLanguage(String language) {
+        return new SpellCheckerInjection(LexiconRegistry.SHARED.get(language));
+    }
+
+    public boolean isValid(String word) {
+        long start = HotPathMetrics.start();
+        boolean valid = dictionary.contains(word);
+        HotPathMetrics.IS_VALID.stop(start);
+        return valid;
+    }
+
+    public List<String> suggestions(String typo) {
+        SuggestionsEvent event = new SuggestionsEvent(); // Costs nothing unless the event is enabled in a recording
+        event.begin();
+        long start = HotPathMetrics.start();
+        List<String> suggestions = Collections.emptyList();
+        HotPathMetrics.SUGGESTIONS.stop(start);
+        if (event.shouldCommit()) { // Only calls slower than the recording's threshold get this far
+            event.language = dictionary.language();
+            event.typo = typo;
+            event.suggestions = suggestions.size();
+            event.commit();
+        }
+        return suggestions;
+    }
+
+    // Checks several words in a single forward pass over the dictionary (see Lexicon.containsEach), so that callers
+    // such as SpellCheckServer answer a whole batch for about the cost of its widest-spread lookups
+    public boolean[] batchIsValid(List<String> words) {
+        long start = HotPathMetrics.start();
+        boolean[] valid = dictionary.containsEach(words);
+        HotPathMetrics.IS_VALID.stop(start, valid.length); // One isValid call per word
+        return valid;
+    }
+
+    // Answers each typo in turn; suggestions has no dictionary pass to share yet
+    public List<List<String>> batchSuggestions(List<String> typos) {
+        List<List<String>> suggestions = new ArrayList<>(typos.size());
+        for (String typo : typos) {
+            suggestions.add(suggestions(typo));
+        }
+        return suggestions;
+    }
 
-    public List<String> suggestions(String typo) { return Collections.emptyList(); }
+    // Prefix completion for as-you-type suggestions, most frequent words first
+    public List<String> completions(String prefix) {
+        return dictionary.completionIndex().complete(prefix);
+    }
+
+    // Incremental completion: feed the cursor each keystroke and ask it for completions
+    public CompletionIndex.Cursor completionCursor() {
+        return dictionary.completionIndex().cursor();
+    }
 }
@@ -30,7 +30,15 @@ public class Stack {
    */
   private void ensureCapacity() {
     if (elements.length == size) {
+      StackResizeEvent event = new StackResizeEvent();
+      event.begin();
       elements = Arrays.copyOf(elements, 2*size + 1);
+      HotPathMetrics.STACK_RESIZES.increment();
+      if (event.shouldCommit()) {
+        event.oldCapacity = size;
+        event.newCapacity = elements.length;
+        event.commit();
+      }
     }
   }
 }
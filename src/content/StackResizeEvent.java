@@ -0,0 +1,19 @@
+package content;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// Recorded each time Stack.ensureCapacity grows the element array
+@Name("content.StackResize")
+@Label("Stack Resize")
+@Category({"Effective Java", "Stack"})
+@Description("Growth of a Stack's element array")
+class StackResizeEvent extends jdk.jfr.Event {
+  @Label("Old Capacity")
+  int oldCapacity;
+
+  @Label("New Capacity")
+  int newCapacity;
+}
@@ -0,0 +1,26 @@
+package content;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+// Recorded when SpellCheckerInjection.suggestions takes longer than the threshold
+@Name("content.Suggestions")
+@Label("Slow Spell Check Suggestions")
+@Category({"Effective Java", "Spell Check"})
+@Description("Calls to SpellCheckerInjection.suggestions that exceeded the threshold")
+@Threshold("5 ms")
+@StackTrace(false)
+class SuggestionsEvent extends jdk.jfr.Event {
+  @Label("Language")
+  String language;
+
+  @Label("Typo")
+  String typo;
+
+  @Label("Suggestions")
+  int suggestions;
+}
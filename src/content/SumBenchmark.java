@@ -0,0 +1,57 @@
+package content;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Times the Chapter2 item6 loop, summing 0..Integer.MAX_VALUE, with a boxed Long accumulator, a primitive long
+ * accumulator, and the sequential and parallel LongReductions.
+ *
+ * Run with: java content.SumBenchmark [rounds]
+ */
+public class SumBenchmark {
+  private static final long N = Integer.MAX_VALUE;
+
+  public static void main(String[] args) {
+    int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+
+    run("boxed Long", rounds, SumBenchmark::boxed);
+    run("primitive long", rounds, SumBenchmark::primitive);
+    run("LongReductions.sum", rounds, () -> LongReductions.sum(0, N + 1));
+    run("LongReductions.parallelSum", rounds, () -> LongReductions.parallelSum(0, N + 1));
+  }
+
+  // Hideously slow! Constructs about 2^31 unnecessary Long instances
+  private static long boxed() {
+    Long sum = 0L;
+    for (long i = 0; i <= N; i++) {
+      sum += i;
+    }
+    return sum;
+  }
+
+  private static long primitive() {
+    long sum = 0L;
+    for (long i = 0; i <= N; i++) {
+      sum += i;
+    }
+    return sum;
+  }
+
+  // The first round is a warm-up and is not counted; the best of the remaining rounds is reported
+  private static void run(String name, int rounds, LongSupplier sum) {
+    long expected = N * (N + 1) / 2;
+    long best = Long.MAX_VALUE;
+    for (int round = 0; round <= rounds; round++) {
+      long start = System.nanoTime();
+      long result = sum.getAsLong();
+      long elapsed = System.nanoTime() - start;
+      if (result != expected) {
+        throw new AssertionError(name + " returned " + result + ", expected " + expected);
+      }
+      if (round > 0) {
+        best = Math.min(best, elapsed);
+      }
+    }
+    System.out.printf("%-28s %8.3f s%n", name, best / 1e9);
+  }
+}